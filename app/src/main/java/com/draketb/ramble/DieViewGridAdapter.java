@@ -3,6 +3,7 @@ package com.draketb.ramble;
 import android.animation.ArgbEvaluator;
 import android.animation.ValueAnimator;
 import android.app.Activity;
+import android.content.res.Resources;
 import android.graphics.drawable.GradientDrawable;
 import android.view.HapticFeedbackConstants;
 import android.view.View;
@@ -14,43 +15,81 @@ import android.widget.BaseAdapter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.Stack;
 
 class DieViewGridAdapter extends BaseAdapter implements AdapterView.OnItemClickListener {
+    private static final Metrics.LatencyHistogram TAP_TIME = Metrics.histogram("ui.dieTap");
+
     private final Activity mActivity;
-    private final int mRows;
+    private final Topology mTopology;
     private final int mCols;
     private final List<DieView> mDieViews = new ArrayList<>();
-    private final Stack<DieView> mClickedDieViews = new Stack<>();
     private final WordListener mListener;
     private boolean mClickEnabled = false;
+    // Face on each die, and positions of the clicked dice in click order
+    private final String[] mFaces;
+    private final int[] mPath;
+    private int mPathLength = 0;
+    // Bit per position, set while that die is on the path
+    private final long[] mClicked;
+    // The current word, and its length before each die on the path was added
+    private final StringBuilder mWord = new StringBuilder();
+    private final int[] mWordLengths;
+    // Hint mode: a cursor kept in step with the clicked dice for as long as they spell a prefix
+    private WordList mHintWordList = null;
+    private WordCursor mCursor = null;
+    private final int[] mHinted = new int[8];
+    private int mNumHinted = 0;
+
+    private final int mNormalTextColor;
+    private final int mClickedTextColor;
+    private final int mHintTextColor;
+    private final int mDeadEndTextColor;
+    private final int mNewWordColor;
+    private final int mDuplicateWordColor;
+    private final int mInvalidWordColor;
+    private final int mStrokeColor;
+    private final int mStrokeWidth;
 
     public void duplicateWordFound() {
-        final DieView[] dieViews = mClickedDieViews.toArray(new DieView[0]);
-        startBackgroundColorAnimation(dieViews, mActivity.getResources().getColor(R.color.dieDuplicateWordColor), 250);
+        startBackgroundColorAnimation(getClickedDieViews(), mDuplicateWordColor, 250);
     }
 
     public void newWordFound() {
-        final DieView[] dieViews = mClickedDieViews.toArray(new DieView[0]);
-        startBackgroundColorAnimation(dieViews, mActivity.getResources().getColor(R.color.dieNewWordColor), 250);
+        startBackgroundColorAnimation(getClickedDieViews(), mNewWordColor, 250);
     }
 
     public void invalidWordFound() {
-        final DieView[] dieViews = mClickedDieViews.toArray(new DieView[0]);
-        startBackgroundColorAnimation(dieViews, mActivity.getResources().getColor(R.color.dieInvalidWordColor), 250);
+        startBackgroundColorAnimation(getClickedDieViews(), mInvalidWordColor, 250);
     }
 
     public interface WordListener {
         void OnWordChanged(String word);
     }
 
-    public DieViewGridAdapter(Activity activity, int rows, int cols, WordListener listener) {
+    public DieViewGridAdapter(Activity activity, Topology topology, WordListener listener) {
         mActivity = activity;
-        mRows = rows;
-        mCols = cols;
+        mTopology = topology;
+        mCols = topology.getNumCols();
         mListener = listener;
-
-        for (int i = 0; i < (mRows * mCols); ++i) {
+        final int numCells = topology.getNumCells();
+        mFaces = new String[numCells];
+        mPath = new int[numCells];
+        mClicked = new long[(numCells + 63) >>> 6];
+        mWordLengths = new int[numCells];
+
+        // Resolved once, taps only ever set these
+        final Resources resources = mActivity.getResources();
+        mNormalTextColor = resources.getColor(R.color.dieNormalTextColor);
+        mClickedTextColor = resources.getColor(R.color.dieClickedTextColor);
+        mHintTextColor = resources.getColor(R.color.dieHintTextColor);
+        mDeadEndTextColor = resources.getColor(R.color.dieDeadEndTextColor);
+        mNewWordColor = resources.getColor(R.color.dieNewWordColor);
+        mDuplicateWordColor = resources.getColor(R.color.dieDuplicateWordColor);
+        mInvalidWordColor = resources.getColor(R.color.dieInvalidWordColor);
+        mStrokeColor = resources.getColor(R.color.dieStrokeColor);
+        mStrokeWidth = resources.getDimensionPixelSize(R.dimen.dieStrokeWidth);
+
+        for (int i = 0; i < numCells; ++i) {
             mDieViews.add((DieView) mActivity.getLayoutInflater().inflate(R.layout.die, null));
         }
     }
@@ -61,18 +100,27 @@ class DieViewGridAdapter extends BaseAdapter implements AdapterView.OnItemClickL
             return;
         }
 
-        final DieView dieView = (DieView) view;
+        final long start = System.nanoTime();
+        click(position);
+        TAP_TIME.recordSince(start);
+    }
+
+    private void click(int position) {
+        final DieView dieView = mDieViews.get(position);
 
         // Check if dieView has already been clicked
-        if (mClickedDieViews.contains(dieView)) {
-            if (mClickedDieViews.peek() == dieView) {
+        if (isClicked(position)) {
+            if (mPath[mPathLength - 1] == position) {
                 // Undo click
-                dieView.setTextColor(mActivity.getResources().getColor(R.color.dieNormalTextColor));
+                dieView.setTextColor(mNormalTextColor);
                 dieView.performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY);
-                mClickedDieViews.pop();
+                --mPathLength;
+                toggleClicked(position);
+                mWord.setLength(mWordLengths[mPathLength]);
+                popHint();
 
                 if (mListener != null) {
-                    mListener.OnWordChanged(getCurrentWord());
+                    mListener.OnWordChanged(mWord.toString());
                 }
             }
 
@@ -80,31 +128,55 @@ class DieViewGridAdapter extends BaseAdapter implements AdapterView.OnItemClickL
         }
 
         // Check if dieView position is valid
-        if (!mClickedDieViews.empty() && !areButtonsAdjacent(mClickedDieViews.peek(), dieView)) {
+        if (mTopology.isMasked(position)
+                || (mPathLength > 0 && !mTopology.areAdjacent(mPath[mPathLength - 1], position))) {
             return;
         }
 
-        dieView.setTextColor(mActivity.getResources().getColor(R.color.dieClickedTextColor));
+        dieView.setTextColor(mClickedTextColor);
         dieView.performHapticFeedback(HapticFeedbackConstants.VIRTUAL_KEY);
-        mClickedDieViews.push(dieView);
+        mWordLengths[mPathLength] = mWord.length();
+        mWord.append(mFaces[position]);
+        mPath[mPathLength++] = position;
+        toggleClicked(position);
+        pushHint(position);
 
         if (mListener != null) {
-            mListener.OnWordChanged(getCurrentWord());
+            mListener.OnWordChanged(mWord.toString());
         }
     }
 
     public void resetButtons() {
         for (DieView dieView : mDieViews) {
-            dieView.setTextColor(mActivity.getResources().getColor(R.color.dieNormalTextColor));
+            dieView.setTextColor(mNormalTextColor);
         }
 
-        mClickedDieViews.clear();
+        for (int i = 0; i < mPathLength; ++i) {
+            toggleClicked(mPath[i]);
+        }
+        mPathLength = 0;
+        mWord.setLength(0);
+        mNumHinted = 0;
+        if (mHintWordList != null) {
+            // A fresh cursor picks up a dictionary that finished loading since the last word
+            mCursor = mHintWordList.newCursor();
+        }
 
         if (mListener != null) {
             mListener.OnWordChanged("");
         }
     }
 
+    /**
+     * Turns hint mode on, or off with null. While on, the dice that would extend the current
+     * prefix are highlighted, and a path that no word starts with is flagged as soon as it is.
+     */
+    public void setHintWordList(WordList wordList) {
+        mHintWordList = wordList;
+        mCursor = null;
+        resetButtons();
+    }
+
     public void setClickEnabled(boolean clickEnabled) {
         mClickEnabled = clickEnabled;
     }
@@ -116,6 +188,7 @@ class DieViewGridAdapter extends BaseAdapter implements AdapterView.OnItemClickL
             final String text = i < dieViewTexts.length ? dieViewTexts[i] : "";
             final DieView dieView = mDieViews.get(i);
             dieView.setText(text);
+            mFaces[i] = text;
 
             if (animate) {
                 startRotationAnimation(
@@ -135,9 +208,7 @@ class DieViewGridAdapter extends BaseAdapter implements AdapterView.OnItemClickL
     }
 
     private void startBackgroundColorAnimation(final DieView[] dieViews, int color, int durationMs) {
-        final int strokeWidth = mActivity.getResources().getDimensionPixelSize(R.dimen.dieStrokeWidth);
-        final int strokeColor = mActivity.getResources().getColor(R.color.dieStrokeColor);
-        final ValueAnimator animator = ValueAnimator.ofObject(new ArgbEvaluator(), color, strokeColor);
+        final ValueAnimator animator = ValueAnimator.ofObject(new ArgbEvaluator(), color, mStrokeColor);
         animator.setDuration(durationMs);
         animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
@@ -145,7 +216,7 @@ class DieViewGridAdapter extends BaseAdapter implements AdapterView.OnItemClickL
                 final int color = (int) animation.getAnimatedValue();
                 for (DieView dieView : dieViews) {
                     final GradientDrawable background = (GradientDrawable) dieView.getBackground();
-                    background.setStroke(strokeWidth, color);
+                    background.setStroke(mStrokeWidth, color);
                 }
             }
         });
@@ -184,27 +255,86 @@ class DieViewGridAdapter extends BaseAdapter implements AdapterView.OnItemClickL
     }
 
     private void setButtonColorClicked(DieView dieView) {
-        dieView.setTextColor(mActivity.getResources().getColor(R.color.dieClickedTextColor));
+        dieView.setTextColor(mClickedTextColor);
+    }
+
+    private DieView[] getClickedDieViews() {
+        final DieView[] dieViews = new DieView[mPathLength];
+        for (int i = 0; i < mPathLength; ++i) {
+            dieViews[i] = mDieViews.get(mPath[i]);
+        }
+        return dieViews;
+    }
+
+    private void pushHint(int position) {
+        final int depth = mPathLength - 1;
+        if (mCursor == null) {
+            return;
+        }
+
+        // The cursor only follows while every die so far spelled a prefix
+        final boolean inStep = mCursor.getDepth() == depth;
+        if (!inStep || !mCursor.advance(mFaces[position])) {
+            clearHints();
+            setPathTextColor(mDeadEndTextColor);
+            return;
+        }
+        showHints(position);
     }
 
-    private boolean areButtonsAdjacent(DieView dieView1, DieView dieView2) {
-        final int index1 = mDieViews.indexOf(dieView1);
-        final int row1 = index1 / mCols;
-        final int col1 = index1 % mRows;
+    private void popHint() {
+        final int depth = mPathLength;
+        if (mCursor == null) {
+            return;
+        }
 
-        final int index2 = mDieViews.indexOf(dieView2);
-        final int row2 = index2 / mCols;
-        final int col2 = index2 % mCols;
+        if (mCursor.getDepth() > depth) {
+            mCursor.back();
+        }
+        clearHints();
+        if (mCursor.getDepth() == depth) {
+            // Back on a live prefix
+            setPathTextColor(mClickedTextColor);
+            if (depth > 0) {
+                showHints(mPath[depth - 1]);
+            }
+        }
+    }
 
-        return (row1 - 1) <= row2 && row2 <= (row1 + 1)
-                && (col1 - 1) <= col2 && col2 <= (col1 + 1);
+    /** Highlights the unclicked neighbors of position that the cursor can advance onto. */
+    private void showHints(int position) {
+        clearHints();
+        for (int i = mTopology.neighborStart(position); i < mTopology.neighborStart(position + 1); ++i) {
+            final int neighbor = mTopology.neighbor(i);
+            if (isClicked(neighbor) || !mCursor.advance(mFaces[neighbor])) {
+                continue;
+            }
+            mCursor.back();
+            mHinted[mNumHinted++] = neighbor;
+            mDieViews.get(neighbor).setTextColor(mHintTextColor);
+        }
     }
 
-    private String getCurrentWord() {
-        final StringBuilder builder = new StringBuilder(mClickedDieViews.size());
-        for (DieView dieView : mClickedDieViews) {
-            builder.append(dieView.getText());
+    private void clearHints() {
+        for (int i = 0; i < mNumHinted; ++i) {
+            if (!isClicked(mHinted[i])) {
+                mDieViews.get(mHinted[i]).setTextColor(mNormalTextColor);
+            }
+        }
+        mNumHinted = 0;
+    }
+
+    private void setPathTextColor(int color) {
+        for (int i = 0; i < mPathLength; ++i) {
+            mDieViews.get(mPath[i]).setTextColor(color);
         }
-        return builder.toString();
     }
-}
\ No newline at end of file
+
+    private boolean isClicked(int position) {
+        return (mClicked[position >>> 6] & (1L << position)) != 0;
+    }
+
+    private void toggleClicked(int position) {
+        mClicked[position >>> 6] ^= 1L << position;
+    }
+}
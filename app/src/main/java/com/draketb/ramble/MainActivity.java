@@ -4,37 +4,61 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.DialogInterface;
+import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.hardware.Sensor;
 import android.hardware.SensorManager;
-import android.os.AsyncTask;
 import android.os.CountDownTimer;
 import android.os.Vibrator;
+import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.KeyEvent;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.GridView;
 import android.widget.TextView;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class MainActivity extends Activity {
     private static final String TAG = MainActivity.class.getSimpleName();
     private static final int BOARD_SIZE = 4;
+    private static final Topology TOPOLOGY = Topology.grid(BOARD_SIZE, BOARD_SIZE);
     private static final int TIMER_SECONDS = 120;
-    private static final Die[] DICE = new Die[] {
-        new Die("RIFOBX"), new Die("IFEHEY"), new Die("DENOWS"), new Die("UTOKND"),
-        new Die("HMSRAO"), new Die("LUPETS"), new Die("ACITOA"), new Die("YLGKUE"),
-        new Die(new String[] {"Qu", "B", "M", "J", "O", "A"}), new Die("EHISPN"), new Die("VETIGN"), new Die("BALIYT"),
-        new Die("EZAVND"), new Die("RALESC"), new Die("UWILRG"), new Die("PACEMD")
-    };
-
+    private static final int BOARD_POOL_CAPACITY = 8;
+    private static final BoardPool.Criteria BOARD_CRITERIA = new BoardPool.Criteria(3, 40, 60, 6, 2);
+    private static final int MISSED_WORDS_SECONDS = 5;
+    // Files are named for the language's dictionary, so each language keeps its own
+    private static final String SOLUTION_CACHE_SUFFIX = ".solutions";
+    private static final long SOLUTION_CACHE_BYTES = 2 * 1024 * 1024;
+    private static final String METRICS_FILE = "metrics.json";
+    private static final String DICTIONARY_SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String LANGUAGE_PREFERENCE = "language";
+    private static final int DICTIONARY_DECODE_THREADS = 4;
+    private static final long SHUTDOWN_WAIT_MS = 500;
+    private static final Metrics.LatencyHistogram DICTIONARY_LOAD_TIME = Metrics.histogram("dictionary.load");
+
+    private Language mLanguage;
+    private BoardGenerator mBoardGenerator;
     private SensorManager mSensorManager;
     private final ShakeDetector mShakeDetector = new ShakeDetector();
     private Vibrator mVibrator = null;
@@ -45,18 +69,94 @@ public class MainActivity extends Activity {
     private int mTimerSecondsRemaining = 0;
     private TextView mCurrentWordText = null;
     private GameCountDownTimer mGameCountDownTimer;
-    private SynchronizedTreeSetWordList mDictionary = new SynchronizedTreeSetWordList();
+    private final ExecutorService mBackgroundExecutor = Executors.newSingleThreadExecutor();
+    private final SwappableWordList mDictionary = new SwappableWordList(mBackgroundExecutor);
+    private BoardPool mBoardPool;
+    private SolutionCache mSolutionCache;
     private List<String> mWordsFound = new ArrayList<>();
     private ArrayAdapter<String> mWordsFoundAdapter;
+    private String[] mBoardFaces = null;
+    // Words on the current board, null until the board has been solved
+    private AnswerSet mAnswers = null;
+    private int mGameNumber = 0;
+    private boolean mHintsEnabled = false;
+    private TextView mProgressText = null;
+    private CancellationToken mMissedWordsCancellation = null;
 
     @Override
     public boolean onKeyDown(int keyCode, KeyEvent event) {
         if (keyCode == KeyEvent.KEYCODE_S) {
             startGame(false);
+        } else if (keyCode == KeyEvent.KEYCODE_H) {
+            setHintsEnabled(!mHintsEnabled);
+        } else if (keyCode == KeyEvent.KEYCODE_L) {
+            final List<Language> languages = Language.all();
+            switchLanguage(languages.get((languages.indexOf(mLanguage) + 1) % languages.size()));
         }
         return false;
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.main_menu, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        menu.findItem(R.id.action_hints).setChecked(mHintsEnabled);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_hints) {
+            setHintsEnabled(!mHintsEnabled);
+            return true;
+        } else if (item.getItemId() == R.id.action_language) {
+            showLanguagePicker();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    private void showLanguagePicker() {
+        final List<Language> languages = Language.all();
+        final String[] names = new String[languages.size()];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = languages.get(i).getDisplayName();
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.action_language)
+                .setSingleChoiceItems(names, languages.indexOf(mLanguage), new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        dialog.dismiss();
+                        switchLanguage(languages.get(which));
+                    }
+                })
+                .show();
+    }
+
+    private void setHintsEnabled(boolean hintsEnabled) {
+        mHintsEnabled = hintsEnabled;
+        mDieViewGridAdapter.setHintWordList(mHintsEnabled ? mDictionary : null);
+    }
+
+    /** Restarts the activity in language, which loads only that language's dictionary. */
+    private void switchLanguage(Language language) {
+        if (language == mLanguage) {
+            return;
+        }
+        getPreferences(MODE_PRIVATE).edit().putString(LANGUAGE_PREFERENCE, language.getId()).apply();
+        recreate();
+    }
+
+    private Language loadLanguage() {
+        final Language saved = Language.forId(getPreferences(MODE_PRIVATE).getString(LANGUAGE_PREFERENCE, ""));
+        return saved != null ? saved : Language.forLocale(Locale.getDefault());
+    }
+
     private void startGame(boolean showProposal) {
         if (mBoardGrid == null) {
             return;
@@ -64,9 +164,70 @@ public class MainActivity extends Activity {
 
         mVibrator.vibrate(100);
 
-        final String[] board = showProposal ? getProposalBoard() : getBoggleBoard(3);
+        final BoardPool.PooledBoard pooled = showProposal ? null : mBoardPool.poll();
+        final String[] board;
+        if (showProposal) {
+            board = getProposalBoard();
+        } else if (pooled != null) {
+            board = pooled.getFaces();
+        } else {
+            // Pool is still warming up, or the dictionary is not loaded yet
+            board = mBoardGenerator.nextBoard(3);
+        }
+        mBoardFaces = board;
         updateBoard(board, true);
         startTimer();
+
+        ++mGameNumber;
+        if (pooled != null) {
+            setAnswers(new AnswerSet(pooled.getWords()));
+        } else {
+            setAnswers(null);
+            solveAnswers(mGameNumber, board);
+        }
+    }
+
+    private void solveAnswers(final int gameNumber, String[] faces) {
+        final Board board = new FixedArrayBoard(TOPOLOGY, faces);
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!mDictionary.isReady()) {
+                    return;
+                }
+                final List<String> words = new ArrayList<>();
+                for (Solver.FoundWord word : mSolutionCache.solve(board)) {
+                    words.add(word.getWord());
+                }
+                final AnswerSet answers = new AnswerSet(words);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (gameNumber == mGameNumber) {
+                            // Count whatever was found while the board was being solved
+                            for (String word : mWordsFound) {
+                                answers.submit(word);
+                            }
+                            setAnswers(answers);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void setAnswers(AnswerSet answers) {
+        mAnswers = answers;
+        updateProgress();
+    }
+
+    private void updateProgress() {
+        if (mAnswers == null) {
+            mProgressText.setText("");
+            return;
+        }
+        mProgressText.setText(String.format("Found %d of %d words / %d points possible",
+                mAnswers.getFoundCount(), mAnswers.getWordCount(), mAnswers.getTotalScore()));
     }
 
     private void registerShakeDetector() {
@@ -93,16 +254,109 @@ public class MainActivity extends Activity {
     }
 
     private int getScore() {
+        if (mAnswers != null) {
+            return mAnswers.getFoundScore();
+        }
         int score = 0;
         for (String s : mWordsFound) {
-            score += s.length() - 2;
+            score += Solver.getScore(s);
         }
         return score;
     }
 
+    private static String formatResult(int score, int missedCount, int missedScore) {
+        return String.format("Score: %d\nMissed: %d words, %d points", score, missedCount, missedScore);
+    }
+
+    /**
+     * Solves the board in the background, updating dialog with the words the player missed as the
+     * solver finds them. Stops when the activity pauses.
+     */
+    private void findMissedWords(final AlertDialog dialog) {
+        final Board board = new FixedArrayBoard(TOPOLOGY, mBoardFaces);
+        final Set<String> wordsFound = new HashSet<>(mWordsFound);
+        final int score = getScore();
+        final CancellationToken cancellation = new CancellationToken();
+        mMissedWordsCancellation = cancellation;
+
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<Solver.FoundWord> cached = mSolutionCache.get(board);
+                Log.d(TAG, String.format("solution cache hit rate: %.2f", mSolutionCache.getHitRate()));
+                if (cached != null) {
+                    int missedCount = 0;
+                    int missedScore = 0;
+                    for (Solver.FoundWord word : cached) {
+                        if (!wordsFound.contains(word.getWord())) {
+                            ++missedCount;
+                            missedScore += word.getScore();
+                        }
+                    }
+                    showResult(dialog, cancellation, formatResult(score, missedCount, missedScore));
+                    return;
+                }
+
+                final List<Solver.FoundWord> solution = new ArrayList<>();
+                final boolean complete = new Solver(board, mDictionary).solve(new Solver.OnWordFoundListener() {
+                    private int mMissedCount = 0;
+                    private int mMissedScore = 0;
+
+                    @Override
+                    public void onWordFound(Solver.FoundWord word) {
+                        solution.add(word);
+                        if (wordsFound.contains(word.getWord())) {
+                            return;
+                        }
+                        ++mMissedCount;
+                        mMissedScore += word.getScore();
+                        showResult(dialog, cancellation, formatResult(score, mMissedCount, mMissedScore));
+                    }
+                }, cancellation, MISSED_WORDS_SECONDS, TimeUnit.SECONDS);
+                // A solve against the empty placeholder dictionary must not be remembered
+                if (complete && mDictionary.isReady()) {
+                    mSolutionCache.put(board, solution);
+                }
+            }
+        });
+    }
+
+    private void showResult(final AlertDialog dialog, final CancellationToken cancellation, final String message) {
+        runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (!cancellation.isCancelled()) {
+                    dialog.setMessage(message);
+                }
+            }
+        });
+    }
+
+    private void cancelFindMissedWords() {
+        if (mMissedWordsCancellation != null) {
+            mMissedWordsCancellation.cancel();
+            mMissedWordsCancellation = null;
+        }
+    }
+
     private void checkCurrentWord() {
         final String word = mCurrentWordText.getText().toString().toLowerCase();
-        if (word.length() >= 3 && mDictionary.containsWord(word)) {
+        if (mAnswers != null) {
+            switch (mAnswers.submit(word)) {
+                case NEW:
+                    mWordsFound.add(word);
+                    mWordsFoundAdapter.notifyDataSetChanged();
+                    mDieViewGridAdapter.newWordFound();
+                    break;
+                case DUPLICATE:
+                    mDieViewGridAdapter.duplicateWordFound();
+                    break;
+                default:
+                    mDieViewGridAdapter.invalidWordFound();
+                    break;
+            }
+            updateProgress();
+        } else if (word.length() >= 3 && mDictionary.containsWord(word)) {
             if (mWordsFound.contains(word)) {
                 // Indicate duplicate word in UI
                 mDieViewGridAdapter.duplicateWordFound();
@@ -125,6 +379,14 @@ public class MainActivity extends Activity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        mLanguage = loadLanguage();
+        mBoardGenerator = new BoardGenerator(mLanguage.getDice(), BOARD_SIZE, BOARD_SIZE, System.nanoTime());
+        mBoardPool = new BoardPool(new BoardGenerator(mLanguage.getDice(), BOARD_SIZE, BOARD_SIZE, System.nanoTime()),
+                mDictionary, BOARD_CRITERIA, BOARD_POOL_CAPACITY);
+        // An update can ship a new word list under the same name, so a saved cache is only kept for this install
+        mSolutionCache = new SolutionCache(mDictionary, mLanguage.getDictionaryName() + "@" + getInstallTime(),
+                SOLUTION_CACHE_BYTES);
+
         mVibrator = (Vibrator) getSystemService(Context.VIBRATOR_SERVICE);
 
         // Set up the to receive shake events
@@ -133,7 +395,7 @@ public class MainActivity extends Activity {
         setContentView(R.layout.main_activity);
         mBoardGrid = (GridView) findViewById(R.id.boardGrid);
         mBoardGrid.setNumColumns(BOARD_SIZE);
-        mDieViewGridAdapter = new DieViewGridAdapter(this, BOARD_SIZE, BOARD_SIZE, new DieViewGridAdapter.WordListener() {
+        mDieViewGridAdapter = new DieViewGridAdapter(this, TOPOLOGY, new DieViewGridAdapter.WordListener() {
             @Override
             public void OnWordChanged(String word) {
                 mCurrentWordText.setText(word);
@@ -146,6 +408,7 @@ public class MainActivity extends Activity {
         mWordsFoundAdapter = new ArrayAdapter<>(getApplicationContext(), R.layout.found_word_text, mWordsFound);
         mWordList.setAdapter(mWordsFoundAdapter);
         mTimerText = (TextView) findViewById(R.id.timerText);
+        mProgressText = (TextView) findViewById(R.id.progressText);
         mCurrentWordText = (TextView) findViewById(R.id.currentWordText);
         mCurrentWordText.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -168,18 +431,141 @@ public class MainActivity extends Activity {
         mDieViewGridAdapter.setButtonColorClicked(2, 2);
         mDieViewGridAdapter.setButtonColorClicked(2, 3);
 
-        // Load dictionary in background
-        new AsyncTask<Void, Void, Void>() {
+        // Start filling the board pool once there is a dictionary to solve against
+        mDictionary.addOnReadyListener(new SwappableWordList.OnReadyListener() {
             @Override
-            protected Void doInBackground(Void... params) {
-                mDictionary.load(getAssets());
-                return null;
+            public void onWordListReady(WordList wordList) {
+                mBoardPool.start();
             }
+        });
 
+        // Load dictionary in background; lookups answer from an empty word list until it is ready
+        mDictionary.load(new Callable<WordList>() {
             @Override
-            protected void onPostExecute(Void result) {
+            public WordList call() throws IOException {
+                return loadDictionary();
+            }
+        });
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadSolutionCache();
+            }
+        });
+    }
+
+    private void loadSolutionCache() {
+        try {
+            final FileInputStream in = new FileInputStream(new File(getFilesDir(), mLanguage.getDictionaryName() + SOLUTION_CACHE_SUFFIX));
+            try {
+                if (!mSolutionCache.load(in)) {
+                    Log.i(TAG, "Discarding solution cache saved for another dictionary");
+                }
+            } finally {
+                in.close();
+            }
+        } catch (FileNotFoundException e) {
+            // Nothing saved yet
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load solution cache", e);
+        }
+    }
+
+    private void saveSolutionCache() {
+        // Write to a temporary file first so a crash mid-write can't leave a truncated cache
+        final File file = new File(getFilesDir(), mLanguage.getDictionaryName() + SOLUTION_CACHE_SUFFIX);
+        final File temp = new File(getFilesDir(), mLanguage.getDictionaryName() + SOLUTION_CACHE_SUFFIX + ".tmp");
+        try {
+            final FileOutputStream out = new FileOutputStream(temp);
+            try {
+                mSolutionCache.save(out);
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                Log.w(TAG, "Failed to replace solution cache");
             }
-        }.execute();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save solution cache", e);
+        }
+    }
+
+    /** Logs every metric and saves them, tagged with the device and release, to metrics.json. */
+    private void dumpMetrics() {
+        for (String line : Metrics.toLines()) {
+            Log.i(TAG, line);
+        }
+
+        final File file = new File(getFilesDir(), METRICS_FILE);
+        final File temp = new File(getFilesDir(), METRICS_FILE + ".tmp");
+        try {
+            final Writer out = new OutputStreamWriter(new FileOutputStream(temp), "UTF-8");
+            try {
+                out.write(String.format("{\"device\":%s,\"sdk\":%d,\"version\":%s,\"metrics\":%s}\n",
+                        Metrics.quote(Build.MANUFACTURER + " " + Build.MODEL), Build.VERSION.SDK_INT,
+                        Metrics.quote(BuildConfig.VERSION_NAME), Metrics.toJson()));
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                Log.w(TAG, "Failed to replace metrics");
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save metrics", e);
+        }
+    }
+
+    private WordList loadDictionary() throws IOException {
+        // The compressed asset is decoded once per install, and the DAWG built from it mapped after
+        // that. The snapshot is kept where the system won't purge it like the cache.
+        final long start = System.nanoTime();
+        final String name = mLanguage.getDictionaryName();
+        final File snapshotFile = new File(getSnapshotDir(), name + DICTIONARY_SNAPSHOT_SUFFIX);
+        final long installTime = getInstallTime();
+        try {
+            final WordList wordList = DictionarySnapshot.load(snapshotFile, installTime);
+            if (wordList != null) {
+                DICTIONARY_LOAD_TIME.recordSince(start);
+                return wordList;
+            }
+            Log.i(TAG, "Dictionary snapshot is from another install, rebuilding it");
+        } catch (FileNotFoundException e) {
+            // Not built yet
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load dictionary snapshot, rebuilding it", e);
+        }
+
+        final DawgWordList dawg;
+        final ExecutorService decoders = Executors.newFixedThreadPool(
+                Math.min(DICTIONARY_DECODE_THREADS, Runtime.getRuntime().availableProcessors()));
+        try {
+            dawg = DawgWordList.minimize(BlockDictionary.load(getAssets().open(name + ".dict"), decoders));
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load " + name + ".dict", e);
+            throw e;
+        } finally {
+            decoders.shutdownNow();
+        }
+        DICTIONARY_LOAD_TIME.recordSince(start);
+        try {
+            DictionarySnapshot.write(dawg, installTime, snapshotFile);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save dictionary snapshot", e);
+        }
+        return dawg;
+    }
+
+    private File getSnapshotDir() {
+        return Build.VERSION.SDK_INT >= 21 ? getNoBackupFilesDir() : getFilesDir();
+    }
+
+    /** Changes with every install or update, and so with every dictionary the APK ships. */
+    private long getInstallTime() {
+        try {
+            return getPackageManager().getPackageInfo(getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return BuildConfig.VERSION_CODE;
+        }
     }
 
     @Override
@@ -191,11 +577,32 @@ public class MainActivity extends Activity {
 
     @Override
     protected void onPause() {
+        cancelFindMissedWords();
         pauseTimer();
         unregisterShakeDetector();
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                saveSolutionCache();
+                dumpMetrics();
+            }
+        });
         super.onPause();
     }
 
+    @Override
+    protected void onDestroy() {
+        mBoardPool.stop();
+        // Let the save queued by onPause finish rather than dropping it
+        mBackgroundExecutor.shutdown();
+        try {
+            mBackgroundExecutor.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.onDestroy();
+    }
+
     private void startTimer() {
         if (mGameCountDownTimer != null) {
             mGameCountDownTimer.cancel();
@@ -226,40 +633,6 @@ public class MainActivity extends Activity {
         mDieViewGridAdapter.updateButtonTexts(board, animate);
     }
 
-    private static String[] getBoggleBoard(int minVowelCount) {
-        final List<Die> dice = Arrays.asList(DICE);
-        Collections.shuffle(dice);
-
-        // Loop to create a board with at least minVowelCount vowels
-        final List<String> board = new ArrayList<>();
-        int vowelCount = 0;
-        while (vowelCount < minVowelCount) {
-            board.clear();
-            vowelCount = 0;
-            for (Die die : dice) {
-                final String c = die.Roll();
-                if (isVowel(c)) {
-                    vowelCount += 1;
-                }
-                board.add(die.Roll());
-            }
-        }
-
-        return board.toArray(new String[board.size()]);
-    }
-
-    static boolean isVowel(String dieFace) {
-        switch (dieFace.toUpperCase()) {
-            case "A":
-            case "E":
-            case "I":
-            case "O":
-            case "U":
-                return true;
-        }
-        return false;
-    }
-
     private static String[] getProposalBoard() {
         return new String[]{
                 "W", "I", "L", "L",
@@ -303,7 +676,7 @@ public class MainActivity extends Activity {
             final AlertDialog.Builder alertDialogBuilder = new AlertDialog.Builder(MainActivity.this);
             alertDialogBuilder
                     .setTitle("Time's Up!")
-                    .setMessage(String.format("Score: %d", getScore()))
+                    .setMessage(formatResult(getScore(), 0, 0))
                     .setCancelable(false)
                     .setPositiveButton("OK", new DialogInterface.OnClickListener() {
                         @Override
@@ -314,11 +687,15 @@ public class MainActivity extends Activity {
                     .setOnDismissListener(new DialogInterface.OnDismissListener() {
                         @Override
                         public void onDismiss(DialogInterface dialog) {
+                            cancelFindMissedWords();
                             registerShakeDetector();
                         }
                     });
             final AlertDialog alertDialog = alertDialogBuilder.create();
             alertDialog.show();
+            if (mBoardFaces != null) {
+                findMissedWords(alertDialog);
+            }
         }
     }
 }
@@ -0,0 +1,126 @@
+package com.draketb.ramble;
+
+import android.app.Activity;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DieViewGridAdapterTest {
+    private static final int ROUNDS = 2000;
+    // Stray allocations on the test thread, averaged per tap; well under one object per die
+    private static final double NOISE_BYTES_PER_TAP = 8;
+
+    private Activity mActivity;
+    private String mWord = "";
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+    }
+
+    private DieViewGridAdapter newAdapter(int rows, int cols) {
+        final DieViewGridAdapter adapter = new DieViewGridAdapter(mActivity, Topology.grid(rows, cols), new DieViewGridAdapter.WordListener() {
+            @Override
+            public void OnWordChanged(String word) {
+                mWord = word;
+            }
+        });
+        final String[] faces = new String[rows * cols];
+        for (int i = 0; i < faces.length; ++i) {
+            faces[i] = String.valueOf((char) ('A' + i % 26));
+        }
+        adapter.updateButtonTexts(faces, false);
+        adapter.setClickEnabled(true);
+        return adapter;
+    }
+
+    private static void tap(DieViewGridAdapter adapter, int position) {
+        adapter.onItemClick(null, adapter.getView(position, null, null), position, adapter.getItemId(position));
+    }
+
+    @Test
+    public void adjacencyOnNonSquareBoard() {
+        // Row 0 is A-E, row 1 is F-J
+        final DieViewGridAdapter adapter = newAdapter(3, 5);
+        tap(adapter, 4);
+        assertEquals("E", mWord);
+        // F is at the start of the next row, nowhere near E
+        tap(adapter, 5);
+        assertEquals("E", mWord);
+        tap(adapter, 9);
+        assertEquals("EJ", mWord);
+        tap(adapter, 3);
+        assertEquals("EJD", mWord);
+    }
+
+    @Test
+    public void onlyLastDieUndoes() {
+        final DieViewGridAdapter adapter = newAdapter(4, 4);
+        tap(adapter, 0);
+        tap(adapter, 5);
+        tap(adapter, 0);
+        assertEquals("AF", mWord);
+        tap(adapter, 5);
+        assertEquals("A", mWord);
+        tap(adapter, 0);
+        assertEquals("", mWord);
+    }
+
+    @Test
+    public void tapCostDoesNotGrowWithBoard() {
+        final com.sun.management.ThreadMXBean threads = allocationCounter();
+        Assume.assumeTrue("JVM can't count allocations per thread", threads != null);
+        // The same four-die path on both, so anything that scales with the board shows up here
+        final double small = bytesPerTap(threads, newAdapter(4, 4));
+        final double large = bytesPerTap(threads, newAdapter(10, 10));
+        assertTrue("10x10 board allocated " + large + " bytes per tap, 4x4 " + small, large <= small + NOISE_BYTES_PER_TAP);
+    }
+
+    /** The per-thread allocation counter, or null where the JVM doesn't provide one. */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                    return counter;
+                }
+            }
+        } catch (LinkageError e) {
+            // No com.sun.management on this JVM
+        }
+        return null;
+    }
+
+    /** Taps a four-die path and back ROUNDS times after a warm-up; returns bytes allocated per tap. */
+    private static double bytesPerTap(com.sun.management.ThreadMXBean threads, DieViewGridAdapter adapter) {
+        final long threadId = Thread.currentThread().getId();
+        final int[] path = {0, 1, 2, 3, 3, 2, 1, 0};
+        for (int round = 0; round < ROUNDS / 4; ++round) {
+            for (int position : path) {
+                tap(adapter, position);
+            }
+        }
+
+        final long bytes = threads.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < ROUNDS; ++round) {
+            for (int position : path) {
+                tap(adapter, position);
+            }
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - bytes) / ((double) ROUNDS * path.length);
+    }
+}
@@ -0,0 +1,81 @@
+package com.draketb.ramble.gradle;
+
+import com.draketb.ramble.BlockDictionary;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles every one-word-per-line dictionary, name.txt, in a directory into the compressed blocks
+ * read by BlockDictionary, name.dict.
+ */
+public class CompileDictionaryTask extends DefaultTask {
+    private File mWordListDir;
+    private File mOutputDir;
+
+    @InputDirectory
+    public File getWordListDir() {
+        return mWordListDir;
+    }
+
+    public void setWordListDir(File wordListDir) {
+        mWordListDir = wordListDir;
+    }
+
+    @OutputDirectory
+    public File getOutputDir() {
+        return mOutputDir;
+    }
+
+    public void setOutputDir(File outputDir) {
+        mOutputDir = outputDir;
+    }
+
+    @TaskAction
+    public void compileAll() throws IOException {
+        final File[] wordLists = mWordListDir.listFiles();
+        if (wordLists == null) {
+            throw new IOException("Failed to list " + mWordListDir);
+        }
+        for (File wordList : wordLists) {
+            final String name = wordList.getName();
+            if (name.endsWith(".txt")) {
+                compile(wordList, new File(mOutputDir, name.substring(0, name.length() - 4) + ".dict"));
+            }
+        }
+    }
+
+    private void compile(File wordList, File outputFile) throws IOException {
+        final List<String> words = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(wordList), Charset.forName("UTF-8")));
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                words.add(line.toLowerCase());
+            }
+        } finally {
+            reader.close();
+        }
+
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile));
+        try {
+            BlockDictionary.write(words, out);
+        } finally {
+            out.close();
+        }
+        getLogger().info("Compiled {} words from {} into {} bytes", words.size(), wordList.getName(), outputFile.length());
+    }
+}
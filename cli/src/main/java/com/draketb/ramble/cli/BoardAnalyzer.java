@@ -0,0 +1,350 @@
+package com.draketb.ramble.cli;
+
+import com.draketb.ramble.BlockDictionary;
+import com.draketb.ramble.Board;
+import com.draketb.ramble.BoardGenerator;
+import com.draketb.ramble.DawgWordList;
+import com.draketb.ramble.Dice;
+import com.draketb.ramble.Die;
+import com.draketb.ramble.FixedArrayBoard;
+import com.draketb.ramble.Solver;
+import com.draketb.ramble.TrieWordList;
+import com.draketb.ramble.WordList;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Solves boards in bulk and streams one line of statistics per board, then prints histograms of
+ * the totals to stderr. Boards are read from stdin, one per line with faces separated by spaces,
+ * or generated from a seed. Only a bounded window of boards is in flight at once, so memory stays
+ * flat however many boards go through.
+ *
+ *     gradle :cli:run --args='--dictionary app/src/main/dictionary/enable1.txt --boards 1000000'
+ *
+ * The dictionary can be a word list with one word per line (.txt) as kept in
+ * app/src/main/dictionary, the block dictionary (.dict) the build compiles from it into
+ * app/build/generated/assets/dictionary, or a DAWG image (.dawg) written by DawgWordList.write.
+ */
+public final class BoardAnalyzer {
+    private static final String USAGE = "usage: BoardAnalyzer --dictionary <enable1.txt|.dict|.dawg>\n"
+            + "    [--size 4x4] [--boards 100000] [--seed 0] [--dice <file>] [--min-vowels 0]\n"
+            + "    [--stdin] [--format csv|jsonl] [--threads <cores>]\n"
+            + "Dice files hold one die per line, faces separated by spaces.";
+    // Boards queued or being solved per thread
+    private static final int IN_FLIGHT_PER_THREAD = 16;
+
+    /** Statistics of one solved board. */
+    static final class BoardStats {
+        final long index;
+        final String board;
+        final int wordCount;
+        final int totalScore;
+        final int longestWord;
+
+        BoardStats(long index, Board board, List<String> words) {
+            this.index = index;
+            this.board = describe(board);
+            int totalScore = 0;
+            int longestWord = 0;
+            for (String word : words) {
+                totalScore += Solver.getScore(word);
+                longestWord = Math.max(longestWord, word.length());
+            }
+            this.wordCount = words.size();
+            this.totalScore = totalScore;
+            this.longestWord = longestWord;
+        }
+
+        String toCsv() {
+            return index + "," + board + "," + wordCount + "," + totalScore + "," + longestWord;
+        }
+
+        String toJson() {
+            return "{\"index\":" + index + ",\"board\":\"" + board.replace("\\", "\\\\").replace("\"", "\\\"")
+                    + "\",\"words\":" + wordCount + ",\"score\":" + totalScore + ",\"longest\":" + longestWord + "}";
+        }
+    }
+
+    private static final Future<BoardStats> END = new FutureTask<>(new Callable<BoardStats>() {
+        @Override
+        public BoardStats call() {
+            return null;
+        }
+    });
+
+    private String mDictionary = null;
+    private int mNumRows = 4;
+    private int mNumCols = 4;
+    private long mNumBoards = 100000;
+    private long mSeed = 0;
+    private String mDiceFile = null;
+    private int mMinVowels = 0;
+    private boolean mStdin = false;
+    private boolean mJson = false;
+    private int mNumThreads = Runtime.getRuntime().availableProcessors();
+    private volatile Exception mFailure = null;
+
+    private BoardAnalyzer() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final BoardAnalyzer analyzer = new BoardAnalyzer();
+        try {
+            analyzer.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            analyzer.run(System.out, System.err);
+        } catch (IllegalArgumentException e) {
+            // A dictionary in an unknown format or with no words, or malformed boards on stdin
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; ++i) {
+            final String option = args[i];
+            if (option.equals("--stdin")) {
+                mStdin = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + option);
+            }
+            final String value = args[++i];
+            try {
+                switch (option) {
+                    case "--dictionary":
+                        mDictionary = value;
+                        break;
+                    case "--size":
+                        final String[] size = value.split("x");
+                        mNumRows = Integer.parseInt(size[0]);
+                        mNumCols = Integer.parseInt(size[size.length - 1]);
+                        break;
+                    case "--boards":
+                        mNumBoards = Long.parseLong(value);
+                        break;
+                    case "--seed":
+                        mSeed = Long.parseLong(value);
+                        break;
+                    case "--dice":
+                        mDiceFile = value;
+                        break;
+                    case "--min-vowels":
+                        mMinVowels = Integer.parseInt(value);
+                        break;
+                    case "--format":
+                        if (!value.equals("csv") && !value.equals("jsonl")) {
+                            throw new IllegalArgumentException("unknown format: " + value);
+                        }
+                        mJson = value.equals("jsonl");
+                        break;
+                    case "--threads":
+                        mNumThreads = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option: " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad value for " + option + ": " + value);
+            }
+        }
+        if (mDictionary == null) {
+            throw new IllegalArgumentException("--dictionary is required");
+        }
+        if (mNumRows <= 0 || mNumCols <= 0 || mNumThreads <= 0) {
+            throw new IllegalArgumentException("size and threads must be positive");
+        }
+    }
+
+    private void run(PrintStream out, PrintStream err) throws Exception {
+        final long start = System.nanoTime();
+        final WordList wordList = loadWordList(mDictionary);
+        err.printf("loaded %s in %d ms%n", mDictionary, (System.nanoTime() - start) / 1000000);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(mNumThreads);
+        final BlockingQueue<Future<BoardStats>> results = new ArrayBlockingQueue<>(IN_FLIGHT_PER_THREAD * mNumThreads);
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    produce(wordList, executor, results);
+                } catch (Exception e) {
+                    mFailure = e;
+                } finally {
+                    try {
+                        results.put(END);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }, "BoardAnalyzer producer");
+        // Don't keep the JVM alive if the main thread gives up while the producer is blocked
+        producer.setDaemon(true);
+        producer.start();
+
+        final Histogram words = new Histogram("words");
+        final Histogram scores = new Histogram("score");
+        final Histogram longest = new Histogram("longest word");
+        if (!mJson) {
+            out.println("index,board,words,score,longest");
+        }
+        // Futures come off the queue in board order, so output is in input order
+        for (Future<BoardStats> result = results.take(); result != END; result = results.take()) {
+            final BoardStats stats;
+            try {
+                stats = result.get();
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+            out.println(mJson ? stats.toJson() : stats.toCsv());
+            words.add(stats.wordCount);
+            scores.add(stats.totalScore);
+            longest.add(stats.longestWord);
+        }
+        out.flush();
+        executor.shutdown();
+        if (mFailure != null) {
+            throw mFailure;
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        err.printf("%d boards in %.1f s, %.0f boards/s on %d threads%n",
+                words.getTotal(), seconds, words.getTotal() / seconds, mNumThreads);
+        words.print(err);
+        scores.print(err);
+        longest.print(err);
+    }
+
+    private void produce(final WordList wordList, ExecutorService executor, BlockingQueue<Future<BoardStats>> results)
+            throws IOException, InterruptedException {
+        if (mStdin) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, "UTF-8"));
+            long index = 0;
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                ++lineNumber;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                final String[] faces = line.split("[\\s,/]+");
+                if (faces.length != mNumRows * mNumCols) {
+                    throw new IllegalArgumentException(String.format("stdin line %d has %d faces, expected %d for --size %dx%d",
+                            lineNumber, faces.length, mNumRows * mNumCols, mNumRows, mNumCols));
+                }
+                results.put(submit(executor, wordList, index++, faces));
+            }
+        } else {
+            final BoardGenerator generator = new BoardGenerator(loadDice(), mNumRows, mNumCols, mSeed);
+            for (long index = 0; index < mNumBoards; ++index) {
+                results.put(submit(executor, wordList, index, generator.nextBoard(mMinVowels)));
+            }
+        }
+    }
+
+    private Future<BoardStats> submit(ExecutorService executor, final WordList wordList, final long index, String[] faces) {
+        final Board board = new FixedArrayBoard(mNumRows, mNumCols, faces);
+        return executor.submit(new Callable<BoardStats>() {
+            @Override
+            public BoardStats call() {
+                return new BoardStats(index, board, new Solver(board, wordList).solve());
+            }
+        });
+    }
+
+    private Die[] loadDice() throws IOException {
+        if (mDiceFile == null) {
+            return Dice.classic();
+        }
+        final List<Die> dice = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(mDiceFile))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    dice.add(new Die(line.split("\\s+")));
+                }
+            }
+        }
+        if (dice.isEmpty()) {
+            throw new IOException("no dice in " + mDiceFile);
+        }
+        return dice.toArray(new Die[0]);
+    }
+
+    /** Loads a .txt, .dict or .dawg dictionary; throws IllegalArgumentException if it has no words. */
+    static WordList loadWordList(String path) throws IOException {
+        final WordList wordList;
+        final int wordCount;
+        if (path.endsWith(".txt")) {
+            final TrieWordList trie = TrieWordList.load(new FileInputStream(path));
+            wordList = trie;
+            wordCount = trie.getWordCount();
+        } else if (path.endsWith(".dict")) {
+            final ExecutorService decoders = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            try (FileInputStream in = new FileInputStream(path)) {
+                final TrieWordList trie = BlockDictionary.load(in, decoders);
+                wordList = trie;
+                wordCount = trie.getWordCount();
+            } finally {
+                decoders.shutdown();
+            }
+        } else if (path.endsWith(".dawg")) {
+            try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+                // The mapping stays valid after the file is closed
+                final FileChannel channel = file.getChannel();
+                final DawgWordList dawg = DawgWordList.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                wordList = dawg;
+                wordCount = dawg.getWordCount();
+            }
+        } else {
+            throw new IllegalArgumentException("unknown dictionary format: " + path);
+        }
+        if (wordCount == 0) {
+            throw new IllegalArgumentException("no words in " + path);
+        }
+        return wordList;
+    }
+
+    /** Rows separated by '/', faces by spaces, so multi-letter faces like "Qu" stay readable. */
+    static String describe(Board board) {
+        final StringBuilder builder = new StringBuilder();
+        for (int row = 0; row < board.getNumRows(); ++row) {
+            if (row > 0) {
+                builder.append('/');
+            }
+            for (int col = 0; col < board.getNumCols(); ++col) {
+                if (col > 0) {
+                    builder.append(' ');
+                }
+                builder.append(board.getDieFace(row, col));
+            }
+        }
+        return builder.toString();
+    }
+}
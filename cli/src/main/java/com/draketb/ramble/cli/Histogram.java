@@ -0,0 +1,92 @@
+package com.draketb.ramble.cli;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Counts of non-negative integer values, one counter per distinct value, so memory grows with
+ * the largest value seen rather than with the number of values.
+ */
+class Histogram {
+    private static final int BAR_WIDTH = 50;
+    private static final int MAX_ROWS = 20;
+
+    private final String mName;
+    private long[] mCounts = new long[64];
+    private long mTotal = 0;
+    private long mSum = 0;
+    private int mMax = -1;
+
+    Histogram(String name) {
+        mName = name;
+    }
+
+    void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(mName + " must not be negative: " + value);
+        }
+        if (value >= mCounts.length) {
+            mCounts = Arrays.copyOf(mCounts, Math.max(value + 1, mCounts.length * 2));
+        }
+        ++mCounts[value];
+        ++mTotal;
+        mSum += value;
+        mMax = Math.max(mMax, value);
+    }
+
+    long getTotal() {
+        return mTotal;
+    }
+
+    double getMean() {
+        return mTotal == 0 ? 0 : (double) mSum / mTotal;
+    }
+
+    /** Smallest value with at least fraction of all values at or below it (nearest rank). */
+    int percentile(double fraction) {
+        if (mTotal == 0) {
+            throw new IllegalStateException(mName + " is empty");
+        }
+        final long rank = Math.max(1, (long) Math.ceil(fraction * mTotal));
+        long seen = 0;
+        for (int value = 0; value <= mMax; ++value) {
+            seen += mCounts[value];
+            if (seen >= rank) {
+                return value;
+            }
+        }
+        return mMax;
+    }
+
+    void print(PrintStream out) {
+        if (mTotal == 0) {
+            out.printf("%s: no values%n", mName);
+            return;
+        }
+        out.printf("%s: n=%d mean=%.2f min=%d p10=%d p25=%d p50=%d p75=%d p90=%d p99=%d max=%d%n",
+                mName, mTotal, getMean(), percentile(0), percentile(0.10), percentile(0.25), percentile(0.50),
+                percentile(0.75), percentile(0.90), percentile(0.99), mMax);
+
+        // Group values into at most MAX_ROWS equal-width bins between min and max
+        final int min = percentile(0);
+        final int binWidth = Math.max(1, (mMax - min + MAX_ROWS) / MAX_ROWS);
+        long largestBin = 0;
+        final long[] bins = new long[(mMax - min) / binWidth + 1];
+        for (int value = min; value <= mMax; ++value) {
+            bins[(value - min) / binWidth] += mCounts[value];
+            largestBin = Math.max(largestBin, bins[(value - min) / binWidth]);
+        }
+        for (int i = 0; i < bins.length; ++i) {
+            final int low = min + i * binWidth;
+            final String range = binWidth == 1 ? String.valueOf(low) : low + "-" + (low + binWidth - 1);
+            final int bar = (int) (BAR_WIDTH * bins[i] / largestBin);
+            out.printf("  %9s %10d %s%n", range, bins[i], repeat('#', bar));
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
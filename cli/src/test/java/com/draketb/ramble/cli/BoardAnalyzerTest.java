@@ -0,0 +1,78 @@
+package com.draketb.ramble.cli;
+
+import com.draketb.ramble.BlockDictionary;
+import com.draketb.ramble.DawgWordList;
+import com.draketb.ramble.TrieWordList;
+import com.draketb.ramble.WordList;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BoardAnalyzerTest {
+    private static final List<String> WORDS = Arrays.asList("cat", "car", "cart", "dog");
+
+    @Test
+    public void loadsEveryDictionaryFormat() throws IOException {
+        final File text = File.createTempFile("words", ".txt");
+        final File blocks = File.createTempFile("words", ".dict");
+        final File dawg = File.createTempFile("words", ".dawg");
+        try {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(text), "UTF-8")) {
+                for (String word : WORDS) {
+                    out.write(word + "\n");
+                }
+            }
+            try (FileOutputStream out = new FileOutputStream(blocks)) {
+                BlockDictionary.write(WORDS, out);
+            }
+            try (FileOutputStream out = new FileOutputStream(dawg)) {
+                DawgWordList.minimize(TrieWordList.load(new FileInputStream(text))).write(out);
+            }
+
+            for (File file : Arrays.asList(text, blocks, dawg)) {
+                final WordList wordList = BoardAnalyzer.loadWordList(file.getPath());
+                assertTrue(file.getName(), wordList.containsWord("cart"));
+                assertFalse(file.getName(), wordList.containsWord("ca"));
+            }
+        } finally {
+            text.delete();
+            blocks.delete();
+            dawg.delete();
+        }
+    }
+
+    @Test
+    public void rejectsUnknownFormatsAndEmptyDictionaries() throws IOException {
+        final File trie = File.createTempFile("words", ".trie");
+        final File empty = File.createTempFile("words", ".dict");
+        try {
+            try (FileOutputStream out = new FileOutputStream(empty)) {
+                BlockDictionary.write(Collections.<String>emptyList(), out);
+            }
+            for (File file : Arrays.asList(trie, empty)) {
+                try {
+                    BoardAnalyzer.loadWordList(file.getPath());
+                    fail("Loaded " + file.getName());
+                } catch (IllegalArgumentException e) {
+                    // Expected
+                }
+            }
+        } finally {
+            trie.delete();
+            empty.delete();
+        }
+    }
+}
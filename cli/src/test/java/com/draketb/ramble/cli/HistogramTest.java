@@ -0,0 +1,48 @@
+package com.draketb.ramble.cli;
+
+import com.draketb.ramble.FixedArrayBoard;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+    @Test
+    public void percentilesUseNearestRank() {
+        final Histogram histogram = new Histogram("words");
+        for (int value = 1; value <= 100; ++value) {
+            histogram.add(value);
+        }
+        assertEquals(100, histogram.getTotal());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(50, histogram.percentile(0.5));
+        assertEquals(90, histogram.percentile(0.9));
+        assertEquals(99, histogram.percentile(0.99));
+        assertEquals(100, histogram.percentile(1));
+    }
+
+    @Test
+    public void growsPastInitialRange() {
+        final Histogram histogram = new Histogram("score");
+        histogram.add(0);
+        histogram.add(5000);
+        histogram.add(5000);
+        assertEquals(0, histogram.percentile(0.2));
+        assertEquals(5000, histogram.percentile(0.5));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        histogram.print(new PrintStream(out));
+        assertTrue(out.toString().startsWith("score: n=3 "));
+    }
+
+    @Test
+    public void boardsKeepMultiLetterFaces() {
+        final FixedArrayBoard board = new FixedArrayBoard(2, 2, new String[] {"Qu", "A", "I", "T"});
+        assertEquals("Qu A/I T", BoardAnalyzer.describe(board));
+    }
+}
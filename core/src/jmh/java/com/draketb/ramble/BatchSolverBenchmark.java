@@ -0,0 +1,55 @@
+package com.draketb.ramble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Boards per second from one shared trie walk per batch, against one Solver per board. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class BatchSolverBenchmark {
+    private static final int BATCH = 256;
+
+    @Param({"4", "5"})
+    public int size;
+
+    private TrieWordList mTrie;
+    private List<Board> mBoards;
+    private BatchSolver mBatchSolver;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mTrie = TrieWordList.load(new FileInputStream(BenchmarkData.DICTIONARY));
+        mBoards = Arrays.asList(BenchmarkData.randomBoards(size, BATCH, 18));
+        mBatchSolver = new BatchSolver(mTrie);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<List<String>> batch() {
+        return mBatchSolver.solve(mBoards);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void single(Blackhole blackhole) {
+        for (Board board : mBoards) {
+            blackhole.consume(new Solver(board, mTrie).solve());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.draketb.ramble;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/** Dictionaries and boards shared by the benchmarks. */
+final class BenchmarkData {
+    static final String DICTIONARY = System.getProperty("ramble.dictionary", "../app/src/main/dictionary/enable1.txt");
+
+    private BenchmarkData() {
+    }
+
+    /** The word list of language, found beside {@link #DICTIONARY}. */
+    static String dictionaryPath(Language language) {
+        return new File(new File(DICTIONARY).getParentFile(), language.getDictionaryName() + ".txt").getPath();
+    }
+
+    static List<String> loadWords() throws IOException {
+        return loadWords(DICTIONARY);
+    }
+
+    static List<String> loadWords(String path) throws IOException {
+        final List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                words.add(line.toLowerCase());
+            }
+        }
+        return words;
+    }
+
+    /** Words in a fixed random order, so lookups don't walk the dictionary in sorted order. */
+    static String[] shuffledWords() throws IOException {
+        final List<String> words = loadWords();
+        Collections.shuffle(words, new Random(10));
+        return words.toArray(new String[0]);
+    }
+
+    static WordList loadWordList(String implementation) throws IOException {
+        switch (implementation) {
+            case "TreeSet":
+                final SynchronizedTreeSetWordList treeSet = new SynchronizedTreeSetWordList();
+                treeSet.load(new FileInputStream(DICTIONARY));
+                return treeSet;
+            case "BloomTreeSet":
+                final SynchronizedTreeSetWordList backing = new SynchronizedTreeSetWordList();
+                backing.load(new FileInputStream(DICTIONARY));
+                return new BloomFilterWordList(backing, 8, 10);
+            case "Trie":
+                return TrieWordList.load(new FileInputStream(DICTIONARY));
+            case "Mapped":
+                final ByteArrayOutputStream image = new ByteArrayOutputStream();
+                MappedTrieWordList.write(TrieWordList.load(new FileInputStream(DICTIONARY)), image);
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(image.size());
+                buffer.put(image.toByteArray()).flip();
+                return new MappedTrieWordList(buffer);
+            case "Louds":
+                return new LoudsWordList(TrieWordList.load(new FileInputStream(DICTIONARY)));
+            case "Dawg":
+                return DawgWordList.minimize(TrieWordList.load(new FileInputStream(DICTIONARY)));
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+    }
+
+    static Board[] randomBoards(int size, int count, long seed) {
+        return randomBoards(Dice.classic(), size, count, seed);
+    }
+
+    static Board[] randomBoards(Die[] dice, int size, int count, long seed) {
+        final BoardGenerator generator = new BoardGenerator(dice, size, size, seed);
+        final Board[] boards = new Board[count];
+        for (int i = 0; i < count; ++i) {
+            boards[i] = new FixedArrayBoard(size, size, generator.nextBoard(0));
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,36 @@
+package com.draketb.ramble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Boards per second from BoardGenerator. The gc profiler should report 0 bytes per board. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class BoardGeneratorBenchmark {
+    @Param({"0", "3"})
+    public int minVowelCount;
+
+    private BoardGenerator mGenerator;
+    private String[] mFaces;
+
+    @Setup
+    public void setUp() {
+        mGenerator = new BoardGenerator(Dice.classic(), 4, 4, 14);
+        mFaces = new String[16];
+    }
+
+    @Benchmark
+    public String[] nextBoard() {
+        mGenerator.nextBoard(minVowelCount, mFaces);
+        return mFaces;
+    }
+}
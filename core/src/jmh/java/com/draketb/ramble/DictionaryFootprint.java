@@ -0,0 +1,45 @@
+package com.draketb.ramble;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Prints the heap retained by each WordList implementation, and the off-heap size where there is
+ * one, then the trie and DAWG sizes of every language. JMH measures time and allocation rate but
+ * not retained size, so this runs on its own.
+ */
+public final class DictionaryFootprint {
+    private DictionaryFootprint() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (String implementation : new String[] {"TreeSet", "Trie", "Mapped", "Louds", "Dawg"}) {
+            final long before = usedHeap();
+            final WordList wordList = BenchmarkData.loadWordList(implementation);
+            final long retained = usedHeap() - before;
+
+            String offHeap = "";
+            if (wordList instanceof LoudsWordList) {
+                offHeap = String.format(", off-heap %d KB", ((LoudsWordList) wordList).getSizeInBytes() / 1024);
+            }
+            System.out.printf("%-8s heap %6d KB%s (%b)%n",
+                    implementation, retained / 1024, offHeap, wordList.containsWord("ramble"));
+        }
+
+        for (Language language : Language.all()) {
+            final TrieWordList trie = TrieWordList.load(new FileInputStream(BenchmarkData.dictionaryPath(language)));
+            final DawgWordList dawg = DawgWordList.minimize(trie);
+            System.out.printf("%-8s %d words, trie %d nodes, DAWG %d states %d edges %d KB%n",
+                    language.getId(), trie.getWordCount(), trie.getNodeCount(),
+                    dawg.getStateCount(), dawg.getEdgeCount(), dawg.getSizeInBytes() / 1024);
+        }
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
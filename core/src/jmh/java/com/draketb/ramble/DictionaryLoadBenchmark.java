@@ -0,0 +1,110 @@
+package com.draketb.ramble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/** Time from nothing to a dictionary that can answer its first query. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DictionaryLoadBenchmark {
+    private File mImage;
+    private File mBlocks;
+    private File mSnapshot;
+    private TrieWordList mTrie;
+    private ExecutorService mDecoders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mTrie = TrieWordList.load(new FileInputStream(BenchmarkData.DICTIONARY));
+        mImage = File.createTempFile("enable1", ".trie");
+        try (FileOutputStream out = new FileOutputStream(mImage)) {
+            MappedTrieWordList.write(mTrie, out);
+        }
+
+        final List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(BenchmarkData.DICTIONARY))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                words.add(line.toLowerCase());
+            }
+        }
+        mBlocks = File.createTempFile("enable1", ".dict");
+        try (FileOutputStream out = new FileOutputStream(mBlocks)) {
+            BlockDictionary.write(words, out);
+        }
+        mSnapshot = File.createTempFile("enable1", ".snapshot");
+        DictionarySnapshot.write(DawgWordList.minimize(mTrie), 0, mSnapshot);
+        mDecoders = Executors.newFixedThreadPool(4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mImage.delete();
+        mBlocks.delete();
+        mSnapshot.delete();
+        mDecoders.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean treeSetFromText() throws IOException {
+        final SynchronizedTreeSetWordList wordList = new SynchronizedTreeSetWordList();
+        wordList.load(new FileInputStream(BenchmarkData.DICTIONARY));
+        return wordList.containsWord("ramble");
+    }
+
+    @Benchmark
+    public boolean trieFromText() throws IOException {
+        return TrieWordList.load(new FileInputStream(BenchmarkData.DICTIONARY)).containsWord("ramble");
+    }
+
+    @Benchmark
+    public boolean trieFromBlocks() throws IOException {
+        return BlockDictionary.load(new FileInputStream(mBlocks), mDecoders).containsWord("ramble");
+    }
+
+    @Benchmark
+    public boolean mappedImage() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(mImage, "r")) {
+            final FileChannel channel = file.getChannel();
+            return MappedTrieWordList.map(channel, 0, channel.size()).containsWord("ramble");
+        }
+    }
+
+    /** What the app does on every start but the first: map the DAWG snapshot and check it. */
+    @Benchmark
+    public boolean mappedSnapshot() throws IOException {
+        return DictionarySnapshot.load(mSnapshot, 0).containsWord("ramble");
+    }
+
+    /** What the app does once per install: decode the shipped blocks and minimize them. */
+    @Benchmark
+    public boolean dawgFromBlocks() throws IOException {
+        return DawgWordList.minimize(BlockDictionary.load(new FileInputStream(mBlocks), mDecoders)).containsWord("ramble");
+    }
+
+    @Benchmark
+    public boolean loudsFromTrie() {
+        return new LoudsWordList(mTrie).containsWord("ramble");
+    }
+}
@@ -0,0 +1,67 @@
+package com.draketb.ramble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and 4x4 solves in each language, on the trie and on the DAWG the app keeps. Run
+ * DictionaryFootprint for the memory side; every language added to {@link Language} belongs in
+ * the language param.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LanguageBenchmark {
+    private static final int SAMPLES = 1 << 16;
+    private static final int BOARDS = 64;
+
+    @Param({"en"})
+    public String language;
+
+    @Param({"Trie", "Dawg"})
+    public String implementation;
+
+    private WordList mWordList;
+    private final String[] mWords = new String[SAMPLES];
+    private Board[] mBoards;
+    private int mIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Language selected = Language.forId(language);
+        final String path = BenchmarkData.dictionaryPath(selected);
+        final TrieWordList trie = TrieWordList.load(new FileInputStream(path));
+        mWordList = implementation.equals("Dawg") ? DawgWordList.minimize(trie) : trie;
+
+        final List<String> words = BenchmarkData.loadWords(path);
+        Collections.shuffle(words, new Random(10));
+        for (int i = 0; i < SAMPLES; ++i) {
+            mWords[i] = words.get(i % words.size());
+        }
+        mBoards = BenchmarkData.randomBoards(selected.getDice(), 4, BOARDS, 12);
+    }
+
+    @Benchmark
+    public boolean containsWord() {
+        return mWordList.containsWord(mWords[mIndex++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public List<String> solve() {
+        return new Solver(mBoards[mIndex++ & (BOARDS - 1)], mWordList).solve();
+    }
+}
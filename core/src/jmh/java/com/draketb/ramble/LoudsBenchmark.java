@@ -0,0 +1,53 @@
+package com.draketb.ramble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** rank1 and select0 on the LOUDS bit string of enable1, at random positions. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LoudsBenchmark {
+    private static final int SAMPLES = 1 << 16;
+
+    private LoudsWordList mLouds;
+    private final int[] mPositions = new int[SAMPLES];
+    private final int[] mZeros = new int[SAMPLES];
+    private int mIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mLouds = new LoudsWordList(TrieWordList.load(new FileInputStream(BenchmarkData.DICTIONARY)));
+        final Random random = new Random(13);
+        for (int i = 0; i < SAMPLES; ++i) {
+            mPositions[i] = random.nextInt(mLouds.getNumBits());
+            mZeros[i] = random.nextInt(mLouds.getNodeCount());
+        }
+    }
+
+    @Benchmark
+    public int rank1() {
+        return mLouds.rank1(mPositions[mIndex++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public int select0() {
+        return mLouds.select0(mZeros[mIndex++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public int firstChild() {
+        return mLouds.firstChild(mZeros[mIndex++ & (SAMPLES - 1)]);
+    }
+}
@@ -0,0 +1,63 @@
+package com.draketb.ramble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves per second by board size. threads = 0 runs the sequential search, anything else runs the
+ * parallel mode on a pool of that many threads, to show how it scales with cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+    private static final int BOARDS = 64;
+
+    @Param({"4", "6", "10"})
+    public int size;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"Trie"})
+    public String implementation;
+
+    private WordList mWordList;
+    private Board[] mBoards;
+    private ExecutorService mExecutor;
+    private int mIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mWordList = BenchmarkData.loadWordList(implementation);
+        mBoards = BenchmarkData.randomBoards(size, BOARDS, 12);
+        mExecutor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<String> solve() throws InterruptedException {
+        final Solver solver = new Solver(mBoards[mIndex++ & (BOARDS - 1)], mWordList);
+        return mExecutor == null ? solver.solve() : solver.solve(mExecutor);
+    }
+}
@@ -0,0 +1,60 @@
+package com.draketb.ramble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** containsWord and containsWords latency on dictionary words, prefixes and misses. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class WordListBenchmark {
+    private static final int SAMPLES = 1 << 16;
+
+    @Param({"TreeSet", "BloomTreeSet", "Trie", "Mapped", "Louds", "Dawg"})
+    public String implementation;
+
+    private WordList mWordList;
+    private final String[] mWords = new String[SAMPLES];
+    private final String[] mPrefixes = new String[SAMPLES];
+    private final String[] mMisses = new String[SAMPLES];
+    private int mIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mWordList = BenchmarkData.loadWordList(implementation);
+        final String[] words = BenchmarkData.shuffledWords();
+        final Random random = new Random(11);
+        for (int i = 0; i < SAMPLES; ++i) {
+            mWords[i] = words[i];
+            mPrefixes[i] = words[i].substring(0, 1 + random.nextInt(words[i].length()));
+            // Mostly not words and not prefixes, like the steps of a board search
+            mMisses[i] = mPrefixes[i] + (char) ('a' + random.nextInt(26)) + (char) ('a' + random.nextInt(26));
+        }
+    }
+
+    @Benchmark
+    public boolean containsWord() {
+        return mWordList.containsWord(mWords[mIndex++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public boolean containsWordsPrefix() {
+        return mWordList.containsWords(mPrefixes[mIndex++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public boolean containsWordsMiss() {
+        return mWordList.containsWords(mMisses[mIndex++ & (SAMPLES - 1)]);
+    }
+}
@@ -0,0 +1,151 @@
+package com.draketb.ramble;
+
+import java.util.Arrays;
+
+/**
+ * Word list over a trie stored in breadth-first order, so the children of every node are a
+ * contiguous, label-sorted run of node ids. Node 0 is the root. Subclasses supply the storage.
+ */
+public abstract class AbstractTrieWordList implements WordList {
+    static final int ROOT = 0;
+    static final int NO_NODE = -1;
+
+    // Length of the longest word below each node, counted from the node; built on first use
+    private volatile byte[] mHeights;
+
+    public abstract int getNodeCount();
+
+    public abstract int getWordCount();
+
+    /**
+     * Children of node n are the nodes in [firstChild(n), firstChild(n + 1)). Also defined for
+     * n == getNodeCount().
+     */
+    abstract int firstChild(int node);
+
+    /** Label of the edge leading into node. */
+    abstract char label(int node);
+
+    abstract boolean isTerminal(int node);
+
+    @Override
+    public boolean containsWord(String word) {
+        final int node = find(word);
+        return node != NO_NODE && isTerminal(node);
+    }
+
+    @Override
+    public boolean containsWords(String prefix) {
+        final int node = find(prefix);
+        // Every node except the root was created by adding a word below it
+        return node != NO_NODE && (node != ROOT || getWordCount() > 0);
+    }
+
+    @Override
+    public WordCursor newCursor() {
+        return new Cursor();
+    }
+
+    int child(int node, char c) {
+        final int end = firstChild(node + 1);
+        for (int i = firstChild(node); i < end; ++i) {
+            final char label = label(i);
+            if (label == c) {
+                return i;
+            }
+            if (label > c) {
+                break;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Letters from node to the end of the longest word below it, or {@link WordCursor#UNBOUNDED}
+     * past what the table holds.
+     */
+    int height(int node) {
+        byte[] heights = mHeights;
+        if (heights == null) {
+            // Racing threads compute the same table, so whichever copy lands is fine
+            heights = computeHeights();
+            mHeights = heights;
+        }
+        final int height = heights[node];
+        return height == Byte.MAX_VALUE ? WordCursor.UNBOUNDED : height;
+    }
+
+    private byte[] computeHeights() {
+        // Children come after their parent in breadth-first order, so one backwards pass suffices
+        final byte[] heights = new byte[getNodeCount()];
+        for (int node = heights.length - 1; node >= 0; --node) {
+            int height = 0;
+            final int end = firstChild(node + 1);
+            for (int i = firstChild(node); i < end; ++i) {
+                height = Math.max(height, heights[i] + 1);
+            }
+            heights[node] = (byte) Math.min(height, Byte.MAX_VALUE);
+        }
+        return heights;
+    }
+
+    private int find(String s) {
+        int node = ROOT;
+        for (int i = 0; i < s.length() && node != NO_NODE; ++i) {
+            node = child(node, s.charAt(i));
+        }
+        return node;
+    }
+
+    private final class Cursor implements WordCursor {
+        // mNodes[d] is the node reached after d faces
+        private int[] mNodes = new int[17];
+        private int mDepth = 0;
+
+        Cursor() {
+            mNodes[0] = ROOT;
+        }
+
+        @Override
+        public boolean advance(String face) {
+            int node = mNodes[mDepth];
+            for (int i = 0; i < face.length() && node != NO_NODE; ++i) {
+                node = child(node, Character.toLowerCase(face.charAt(i)));
+            }
+            if (node == NO_NODE) {
+                return false;
+            }
+
+            if (mDepth + 1 == mNodes.length) {
+                mNodes = Arrays.copyOf(mNodes, mNodes.length * 2);
+            }
+            mNodes[++mDepth] = node;
+            return true;
+        }
+
+        @Override
+        public void back() {
+            --mDepth;
+        }
+
+        @Override
+        public boolean isWord() {
+            return isTerminal(mNodes[mDepth]);
+        }
+
+        @Override
+        public int getDepth() {
+            return mDepth;
+        }
+
+        @Override
+        public int getMaxRemainingLength() {
+            return height(mNodes[mDepth]);
+        }
+
+        @Override
+        public void reset() {
+            mDepth = 0;
+        }
+    }
+}
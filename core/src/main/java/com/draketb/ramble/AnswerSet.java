@@ -0,0 +1,104 @@
+package com.draketb.ramble;
+
+import java.util.Collection;
+
+/**
+ * Every word on one board, built once when the game starts, so checking a submitted word is one
+ * hash lookup and the found/possible totals are kept as running counts.
+ *
+ * Words live in an open-addressing table at most half full, which averages close to a single
+ * probe per lookup. Not thread-safe; build it anywhere, then use it from one thread.
+ */
+public class AnswerSet {
+    public enum Submission {
+        NEW,
+        DUPLICATE,
+        NOT_ON_BOARD,
+    }
+
+    private final String[] mSlots;
+    private final int[] mScores;
+    // Bit per slot, set once the word in that slot has been found
+    private final long[] mFound;
+    private final int mMask;
+    private final int mWordCount;
+    private final int mTotalScore;
+    private int mFoundCount = 0;
+    private int mFoundScore = 0;
+
+    public AnswerSet(Collection<String> words) {
+        int capacity = 2;
+        while (capacity < 2 * words.size()) {
+            capacity <<= 1;
+        }
+        mSlots = new String[capacity];
+        mScores = new int[capacity];
+        mFound = new long[(capacity + 63) >>> 6];
+        mMask = capacity - 1;
+
+        int wordCount = 0;
+        int totalScore = 0;
+        for (String word : words) {
+            final int slot = slotOf(word);
+            if (mSlots[slot] == null) {
+                mSlots[slot] = word;
+                mScores[slot] = Solver.getScore(word);
+                ++wordCount;
+                totalScore += mScores[slot];
+            }
+        }
+        mWordCount = wordCount;
+        mTotalScore = totalScore;
+    }
+
+    public boolean contains(String word) {
+        return mSlots[slotOf(word)] != null;
+    }
+
+    /** Marks word found if it is on the board and wasn't already. */
+    public Submission submit(String word) {
+        final int slot = slotOf(word);
+        if (mSlots[slot] == null) {
+            return Submission.NOT_ON_BOARD;
+        }
+        final long bit = 1L << slot;
+        if ((mFound[slot >>> 6] & bit) != 0) {
+            return Submission.DUPLICATE;
+        }
+        mFound[slot >>> 6] |= bit;
+        ++mFoundCount;
+        mFoundScore += mScores[slot];
+        return Submission.NEW;
+    }
+
+    public int getWordCount() {
+        return mWordCount;
+    }
+
+    public int getTotalScore() {
+        return mTotalScore;
+    }
+
+    public int getFoundCount() {
+        return mFoundCount;
+    }
+
+    public int getFoundScore() {
+        return mFoundScore;
+    }
+
+    /** Slot holding word, or the empty slot where it would go. */
+    private int slotOf(String word) {
+        int slot = spread(word.hashCode()) & mMask;
+        while (mSlots[slot] != null && !mSlots[slot].equals(word)) {
+            slot = (slot + 1) & mMask;
+        }
+        return slot;
+    }
+
+    private static int spread(int hash) {
+        // String hashes of short words differ mostly in their low bits, mix in the high ones
+        hash *= 0x9e3779b9;
+        return hash ^ (hash >>> 16);
+    }
+}
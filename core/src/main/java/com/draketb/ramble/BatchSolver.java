@@ -0,0 +1,276 @@
+package com.draketb.ramble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Solves many boards in a single walk of the trie. Every trie node carries the set of
+ * (board, cell, visited cells) paths that spell its prefix, so each node is visited once for the
+ * whole batch instead of once per board that reaches it.
+ *
+ * Finds the same words as {@link Solver}, listed in alphabetical order, which is the order the
+ * walk reaches them. Boards of more than 64 cells are handed to {@link Solver} one at a time.
+ * Not thread-safe; use one instance per thread.
+ */
+public class BatchSolver {
+    private static final int MAX_CELLS = 64;
+
+    /**
+     * Paths reaching one depth of the walk, grouped by the letter they step onto next. A path
+     * whose last face is only partly spelled, like the q of "Qu", has facePos inside that face.
+     */
+    private static final class Level {
+        int[] board = new int[64];
+        int[] cell = new int[64];
+        long[] visited = new long[64];
+        int[] facePos = new int[64];
+        // Paths stepping onto letter index i are [letterStart[i], letterStart[i + 1])
+        int[] letterStart;
+
+        void ensureCapacity(int capacity) {
+            if (capacity > board.length) {
+                final int length = Math.max(capacity, board.length * 2);
+                board = Arrays.copyOf(board, length);
+                cell = Arrays.copyOf(cell, length);
+                visited = Arrays.copyOf(visited, length);
+                facePos = Arrays.copyOf(facePos, length);
+            }
+        }
+    }
+
+    private final AbstractTrieWordList mTrie;
+    // Dense index of each letter on the boards being solved, -1 for all other chars
+    private final short[] mLetterIndex = new short[Character.MAX_VALUE + 1];
+    private final List<Level> mLevels = new ArrayList<>();
+    private char[] mPrefix = new char[32];
+
+    private TokenBoard[] mBoards;
+    // Lower-cased letters of each token of each board
+    private char[][][] mLetters;
+    private int mNumLetters;
+    private List<List<String>> mWords;
+    // Last trie node each board recorded a word at, so several paths to one word count once
+    private int[] mLastRecorded;
+
+    public BatchSolver(AbstractTrieWordList trie) {
+        mTrie = trie;
+        Arrays.fill(mLetterIndex, (short) -1);
+    }
+
+    /** Returns the words of each board, in the order of boards. */
+    public List<List<String>> solve(List<? extends Board> boards) {
+        final List<List<String>> words = new ArrayList<>(boards.size());
+        final List<TokenBoard> batch = new ArrayList<>();
+        final List<Integer> batchIndexes = new ArrayList<>();
+        for (int i = 0; i < boards.size(); ++i) {
+            final TokenBoard board = TokenBoard.of(boards.get(i));
+            if (board.getNumCells() > MAX_CELLS) {
+                final List<String> solved = new ArrayList<>(new Solver(board, mTrie).solve());
+                Collections.sort(solved);
+                words.add(solved);
+            } else {
+                words.add(null);
+                batch.add(board);
+                batchIndexes.add(i);
+            }
+        }
+
+        final List<List<String>> solved = solveBatch(batch.toArray(new TokenBoard[0]));
+        for (int i = 0; i < solved.size(); ++i) {
+            words.set(batchIndexes.get(i), solved.get(i));
+        }
+        return words;
+    }
+
+    private List<List<String>> solveBatch(TokenBoard[] boards) {
+        mBoards = boards;
+        mLetters = new char[boards.length][][];
+        mWords = new ArrayList<>(boards.length);
+        mLastRecorded = new int[boards.length];
+        Arrays.fill(mLastRecorded, AbstractTrieWordList.NO_NODE);
+        mNumLetters = 0;
+        for (int b = 0; b < boards.length; ++b) {
+            mWords.add(new ArrayList<String>());
+            mLetters[b] = new char[boards[b].getNumTokens()][];
+            for (int token = 0; token < mLetters[b].length; ++token) {
+                final char[] letters = boards[b].getFace(token).toCharArray();
+                for (int i = 0; i < letters.length; ++i) {
+                    letters[i] = Character.toLowerCase(letters[i]);
+                    if (mLetterIndex[letters[i]] < 0) {
+                        mLetterIndex[letters[i]] = (short) mNumLetters++;
+                    }
+                }
+                mLetters[b][token] = letters;
+            }
+        }
+
+        try {
+            // Every cell of every board starts a path
+            final Level first = level(0);
+            countStarts(first);
+            fillStarts(first);
+            visitChildren(AbstractTrieWordList.ROOT, 0);
+            return mWords;
+        } finally {
+            for (char[][] tokens : mLetters) {
+                for (char[] letters : tokens) {
+                    for (char c : letters) {
+                        mLetterIndex[c] = -1;
+                    }
+                }
+            }
+            mBoards = null;
+            mLetters = null;
+            mWords = null;
+        }
+    }
+
+    private Level level(int depth) {
+        while (mLevels.size() <= depth) {
+            mLevels.add(new Level());
+        }
+        final Level level = mLevels.get(depth);
+        if (level.letterStart == null || level.letterStart.length < mNumLetters + 1) {
+            level.letterStart = new int[mNumLetters + 1];
+        }
+        return level;
+    }
+
+    private void countStarts(Level next) {
+        Arrays.fill(next.letterStart, 0, mNumLetters + 1, 0);
+        for (int b = 0; b < mBoards.length; ++b) {
+            for (int cell = 0; cell < mBoards[b].getNumCells(); ++cell) {
+                final int token = mBoards[b].getToken(cell);
+                if (token != TokenBoard.BLANK) {
+                    ++next.letterStart[mLetterIndex[mLetters[b][token][0]] + 1];
+                }
+            }
+        }
+    }
+
+    private void fillStarts(Level next) {
+        final int[] end = toOffsets(next);
+        for (int b = 0; b < mBoards.length; ++b) {
+            for (int cell = 0; cell < mBoards[b].getNumCells(); ++cell) {
+                final int token = mBoards[b].getToken(cell);
+                if (token != TokenBoard.BLANK) {
+                    add(next, end, mLetterIndex[mLetters[b][token][0]], b, cell, 1L << cell, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns the per-letter counts in next.letterStart into offsets and sizes next to hold them.
+     * Returns a copy of the offsets to fill from.
+     */
+    private int[] toOffsets(Level next) {
+        final int[] start = next.letterStart;
+        for (int i = 0; i < mNumLetters; ++i) {
+            start[i + 1] += start[i];
+        }
+        next.ensureCapacity(start[mNumLetters]);
+        return Arrays.copyOf(start, mNumLetters);
+    }
+
+    private static void add(Level next, int[] end, int letter, int board, int cell, long visited, int facePos) {
+        final int i = end[letter]++;
+        next.board[i] = board;
+        next.cell[i] = cell;
+        next.visited[i] = visited;
+        next.facePos[i] = facePos;
+    }
+
+    /** Follows each child of node that some path at depth steps onto. */
+    private void visitChildren(int node, int depth) {
+        final Level paths = mLevels.get(depth);
+        final int end = mTrie.firstChild(node + 1);
+        for (int child = mTrie.firstChild(node); child < end; ++child) {
+            final int letter = mLetterIndex[mTrie.label(child)];
+            if (letter >= 0 && paths.letterStart[letter] < paths.letterStart[letter + 1]) {
+                visit(child, depth + 1, paths, paths.letterStart[letter], paths.letterStart[letter + 1]);
+            }
+        }
+    }
+
+    /** Visits node, reached at depth letters by paths [from, to) of parent. */
+    private void visit(int node, int depth, Level parent, int from, int to) {
+        if (depth > mPrefix.length) {
+            mPrefix = Arrays.copyOf(mPrefix, mPrefix.length * 2);
+        }
+        mPrefix[depth - 1] = mTrie.label(node);
+
+        if (depth >= Solver.MIN_WORD_LENGTH && mTrie.isTerminal(node)) {
+            String word = null;
+            for (int i = from; i < to; ++i) {
+                final int b = parent.board[i];
+                if (mLastRecorded[b] != node && isFaceComplete(parent, i)) {
+                    if (word == null) {
+                        word = new String(mPrefix, 0, depth);
+                    }
+                    mWords.get(b).add(word);
+                    mLastRecorded[b] = node;
+                }
+            }
+        }
+
+        if (mTrie.firstChild(node) == mTrie.firstChild(node + 1)) {
+            return;
+        }
+        final Level next = level(depth);
+        countSteps(parent, from, to, next);
+        fillSteps(parent, from, to, next);
+        visitChildren(node, depth);
+    }
+
+    private boolean isFaceComplete(Level paths, int i) {
+        final int b = paths.board[i];
+        return paths.facePos[i] == mLetters[b][mBoards[b].getToken(paths.cell[i])].length;
+    }
+
+    private void countSteps(Level paths, int from, int to, Level next) {
+        final int[] count = next.letterStart;
+        Arrays.fill(count, 0, mNumLetters + 1, 0);
+        for (int i = from; i < to; ++i) {
+            final int b = paths.board[i];
+            final TokenBoard board = mBoards[b];
+            final char[] face = mLetters[b][board.getToken(paths.cell[i])];
+            if (paths.facePos[i] < face.length) {
+                ++count[mLetterIndex[face[paths.facePos[i]]] + 1];
+                continue;
+            }
+            final long visited = paths.visited[i];
+            final int end = board.neighborStart(paths.cell[i] + 1);
+            for (int n = board.neighborStart(paths.cell[i]); n < end; ++n) {
+                final int neighbor = board.neighbor(n);
+                if ((visited & (1L << neighbor)) == 0) {
+                    ++count[mLetterIndex[mLetters[b][board.getToken(neighbor)][0]] + 1];
+                }
+            }
+        }
+    }
+
+    private void fillSteps(Level paths, int from, int to, Level next) {
+        final int[] end = toOffsets(next);
+        for (int i = from; i < to; ++i) {
+            final int b = paths.board[i];
+            final TokenBoard board = mBoards[b];
+            final int cell = paths.cell[i];
+            final char[] face = mLetters[b][board.getToken(cell)];
+            if (paths.facePos[i] < face.length) {
+                add(next, end, mLetterIndex[face[paths.facePos[i]]], b, cell, paths.visited[i], paths.facePos[i] + 1);
+                continue;
+            }
+            final long visited = paths.visited[i];
+            final int neighborEnd = board.neighborStart(cell + 1);
+            for (int n = board.neighborStart(cell); n < neighborEnd; ++n) {
+                final int neighbor = board.neighbor(n);
+                if ((visited & (1L << neighbor)) == 0) {
+                    add(next, end, mLetterIndex[mLetters[b][board.getToken(neighbor)][0]], b, neighbor, visited | (1L << neighbor), 1);
+                }
+            }
+        }
+    }
+}
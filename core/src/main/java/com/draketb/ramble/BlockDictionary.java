@@ -0,0 +1,245 @@
+package com.draketb.ramble;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Word list stored as independently deflated blocks of front-coded words, so that blocks can be
+ * decoded in parallel. Within a block every word is stored as the length of the prefix it shares
+ * with the word before it, then the length and characters of the rest; the first word of a block
+ * shares nothing. Lengths and characters are varints, seven bits to a byte, so ASCII takes one
+ * byte a character, the rest of Latin-1, Cyrillic, Greek and most other alphabets two, and any
+ * other UTF-16 code unit three.
+ *
+ * Layout, big-endian: magic, version, word count, block count, then for each block its word
+ * count, character count, front-coded length and deflated length, then the deflated blocks.
+ */
+public final class BlockDictionary {
+    static final int MAGIC = 0x524d4244; // "RMBD"
+    static final int VERSION = 2;
+    static final int WORDS_PER_BLOCK = 4096;
+
+    /** The words of one block, end to end, with the end of each word in chars. */
+    private static final class Block {
+        final char[] chars;
+        final int[] ends;
+
+        Block(char[] chars, int[] ends) {
+            this.chars = chars;
+            this.ends = ends;
+        }
+    }
+
+    private BlockDictionary() {
+    }
+
+    /** Writes words, sorted and without duplicates, in blocks of WORDS_PER_BLOCK. */
+    public static void write(Collection<String> words, OutputStream out) throws IOException {
+        final List<String> sorted = new ArrayList<>(new TreeSet<>(words));
+        final int blockCount = (sorted.size() + WORDS_PER_BLOCK - 1) / WORDS_PER_BLOCK;
+        final int[][] counts = new int[blockCount][];
+        final List<byte[]> blocks = new ArrayList<>(blockCount);
+
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[64 * 1024];
+        for (int block = 0; block < blockCount; ++block) {
+            final List<String> blockWords = sorted.subList(block * WORDS_PER_BLOCK,
+                    Math.min(sorted.size(), (block + 1) * WORDS_PER_BLOCK));
+            encoded.reset();
+            int charCount = 0;
+            String previous = "";
+            for (String word : blockWords) {
+                int shared = 0;
+                while (shared < Math.min(word.length(), previous.length()) && word.charAt(shared) == previous.charAt(shared)) {
+                    ++shared;
+                }
+                writeVarint(encoded, shared);
+                writeVarint(encoded, word.length() - shared);
+                for (int i = shared; i < word.length(); ++i) {
+                    writeVarint(encoded, word.charAt(i));
+                }
+                charCount += word.length();
+                previous = word;
+            }
+
+            deflater.reset();
+            deflater.setInput(encoded.toByteArray());
+            deflater.finish();
+            final ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+            while (!deflater.finished()) {
+                deflated.write(buffer, 0, deflater.deflate(buffer));
+            }
+            counts[block] = new int[] {blockWords.size(), charCount, encoded.size()};
+            blocks.add(deflated.toByteArray());
+        }
+        deflater.end();
+
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(sorted.size());
+        data.writeInt(blockCount);
+        for (int block = 0; block < blockCount; ++block) {
+            data.writeInt(counts[block][0]);
+            data.writeInt(counts[block][1]);
+            data.writeInt(counts[block][2]);
+            data.writeInt(blocks.get(block).length);
+        }
+        for (byte[] block : blocks) {
+            data.write(block);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a word list written by {@link #write} into a trie. Blocks are decoded on executor and
+     * added to the trie in order as each one completes, while later blocks are still decoding.
+     */
+    public static TrieWordList load(InputStream in, ExecutorService executor) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        final List<Future<Block>> blocks = new ArrayList<>();
+        try {
+            if (data.readInt() != MAGIC) {
+                throw new IOException("Not a block dictionary");
+            }
+            if (data.readInt() != VERSION) {
+                throw new IOException("Unsupported block dictionary version");
+            }
+            data.readInt();
+            final int blockCount = data.readInt();
+            final int[][] index = new int[blockCount][4];
+            for (int block = 0; block < blockCount; ++block) {
+                for (int i = 0; i < 4; ++i) {
+                    index[block][i] = data.readInt();
+                }
+            }
+            for (int block = 0; block < blockCount; ++block) {
+                final byte[] deflated = new byte[index[block][3]];
+                data.readFully(deflated);
+                blocks.add(executor.submit(newDecodeTask(deflated, index[block][0], index[block][1], index[block][2])));
+            }
+        } finally {
+            data.close();
+        }
+
+        final TrieWordList.Builder builder = new TrieWordList.Builder();
+        try {
+            for (Future<Block> future : blocks) {
+                final Block block = future.get();
+                int start = 0;
+                for (int end : block.ends) {
+                    builder.add(block.chars, start, end - start);
+                    start = end;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted loading block dictionary");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            for (Future<Block> future : blocks) {
+                future.cancel(true);
+            }
+        }
+        return builder.build();
+    }
+
+    private static Callable<Block> newDecodeTask(final byte[] deflated, final int wordCount, final int charCount,
+                                                 final int encodedLength) {
+        return new Callable<Block>() {
+            @Override
+            public Block call() throws IOException {
+                final byte[] encoded = new byte[encodedLength];
+                final Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(deflated);
+                    if (inflater.inflate(encoded) != encodedLength || !inflater.finished()) {
+                        throw new IOException("Corrupt block dictionary");
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Corrupt block dictionary", e);
+                } finally {
+                    inflater.end();
+                }
+
+                // Each word starts as a copy of the previous one's shared prefix
+                final char[] chars = new char[charCount];
+                final int[] ends = new int[wordCount];
+                final VarintReader reader = new VarintReader(encoded);
+                int previousStart = 0;
+                try {
+                    for (int word = 0; word < wordCount; ++word) {
+                        final int start = word == 0 ? 0 : ends[word - 1];
+                        final int shared = reader.read();
+                        final int suffix = reader.read();
+                        if (shared > start - previousStart || suffix < 0) {
+                            throw new IOException("Corrupt block dictionary");
+                        }
+                        System.arraycopy(chars, previousStart, chars, start, shared);
+                        for (int i = start + shared; i < start + shared + suffix; ++i) {
+                            chars[i] = (char) reader.read();
+                        }
+                        ends[word] = start + shared + suffix;
+                        previousStart = start;
+                    }
+                } catch (ArrayIndexOutOfBoundsException e) {
+                    throw new IOException("Corrupt block dictionary", e);
+                }
+                if (reader.position != encodedLength || (wordCount > 0 && ends[wordCount - 1] != charCount)) {
+                    throw new IOException("Corrupt block dictionary");
+                }
+                return new Block(chars, ends);
+            }
+        };
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class VarintReader {
+        private final byte[] mBytes;
+        int position = 0;
+
+        VarintReader(byte[] bytes) {
+            mBytes = bytes;
+        }
+
+        int read() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                final byte b = mBytes[position++];
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt block dictionary");
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.draketb.ramble;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * WordList that answers most misses from Bloom filters over its words and their prefixes, and
+ * only asks the wrapped list when a filter can't rule the query out. Meant for lists that answer
+ * string queries slowly, like the TreeSet one; a trie already rejects a miss in a few steps.
+ *
+ * The filters are blocked: all bits for a key fall in one 512-bit block, so a query touches one
+ * cache line. Prefixes longer than maxPrefixLength are checked by their first maxPrefixLength
+ * letters, which still rules out most of them.
+ */
+public class BloomFilterWordList implements WordList {
+    private static final int BLOCK_BITS = 512;
+    private static final int LONGS_PER_BLOCK = BLOCK_BITS / 64;
+    // Nine bits pick a bit in a block, so one 64-bit hash yields up to seven of them
+    private static final int MAX_HASHES = 7;
+
+    private static final class Filter {
+        private final long[] mBits;
+        private final int mNumBlocks;
+        private final int mNumHashes;
+
+        Filter(int numKeys, int bitsPerKey) {
+            mNumBlocks = Math.max(1, (int) (((long) numKeys * bitsPerKey + BLOCK_BITS - 1) / BLOCK_BITS));
+            mBits = new long[mNumBlocks * LONGS_PER_BLOCK];
+            mNumHashes = Math.max(1, Math.min(MAX_HASHES, (int) Math.round(bitsPerKey * Math.log(2))));
+        }
+
+        void add(CharSequence s, int length) {
+            final long hash = hash(s, length);
+            final int block = block(hash);
+            long bits = mix64(hash ^ 0x2545f4914f6cdd1dL);
+            for (int i = 0; i < mNumHashes; ++i, bits >>>= 9) {
+                final int bit = (int) bits & (BLOCK_BITS - 1);
+                mBits[block + (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(CharSequence s, int length) {
+            final long hash = hash(s, length);
+            final int block = block(hash);
+            long bits = mix64(hash ^ 0x2545f4914f6cdd1dL);
+            for (int i = 0; i < mNumHashes; ++i, bits >>>= 9) {
+                final int bit = (int) bits & (BLOCK_BITS - 1);
+                if ((mBits[block + (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Index of the first long of the block for hash. */
+        private int block(long hash) {
+            return (int) (((hash >>> 32) * mNumBlocks) >>> 32) * LONGS_PER_BLOCK;
+        }
+
+        int getSizeInBytes() {
+            return mBits.length * 8;
+        }
+    }
+
+    /**
+     * Counts kept by one thread, so parallel solves don't contend on shared counters. Only the
+     * owning thread writes them; totals read while queries are running may lag slightly.
+     */
+    private static final class Counts {
+        long queries;
+        long rejects;
+        long falsePositives;
+    }
+
+    private final WordList mWordList;
+    private final int mMaxPrefixLength;
+    private final Filter mWords;
+    private final Filter mPrefixes;
+    private final List<Counts> mAllCounts = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Counts> mCounts = new ThreadLocal<Counts>() {
+        @Override
+        protected Counts initialValue() {
+            final Counts counts = new Counts();
+            mAllCounts.add(counts);
+            return counts;
+        }
+    };
+
+    /** Filters wordList by its own words. */
+    public BloomFilterWordList(SynchronizedTreeSetWordList wordList, int maxPrefixLength, int bitsPerKey) {
+        this(wordList, wordList.getWords(), maxPrefixLength, bitsPerKey);
+    }
+
+    /**
+     * words must be all the words in wordList, as any it leaves out would be rejected. Each one is
+     * checked against wordList, so words in another case or from another list fail here rather
+     * than as missing words later. bitsPerKey trades memory for fewer false positives: 10 bits
+     * gives about 1%.
+     */
+    public BloomFilterWordList(WordList wordList, Iterable<String> words, int maxPrefixLength, int bitsPerKey) {
+        mWordList = wordList;
+        mMaxPrefixLength = maxPrefixLength;
+
+        // Sorted, the distinct prefixes of a word are the ones it doesn't share with the word before
+        final List<String> sorted = new ArrayList<>();
+        for (String word : words) {
+            if (!wordList.containsWord(word)) {
+                throw new IllegalArgumentException("\"" + word + "\" is not in the wrapped word list");
+            }
+            sorted.add(word);
+        }
+        Collections.sort(sorted);
+        int numPrefixes = 0;
+        String previous = "";
+        for (String word : sorted) {
+            numPrefixes += Math.max(0, Math.min(word.length(), maxPrefixLength) - commonPrefixLength(previous, word));
+            previous = word;
+        }
+
+        mWords = new Filter(sorted.size(), bitsPerKey);
+        mPrefixes = new Filter(numPrefixes, bitsPerKey);
+        previous = "";
+        for (String word : sorted) {
+            mWords.add(word, word.length());
+            final int end = Math.min(word.length(), maxPrefixLength);
+            for (int length = commonPrefixLength(previous, word) + 1; length <= end; ++length) {
+                mPrefixes.add(word, length);
+            }
+            previous = word;
+        }
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        final Counts counts = mCounts.get();
+        ++counts.queries;
+        if (!mWords.mightContain(word, word.length())) {
+            ++counts.rejects;
+            return false;
+        }
+        return confirm(counts, mWordList.containsWord(word));
+    }
+
+    @Override
+    public boolean containsWords(String prefix) {
+        final Counts counts = mCounts.get();
+        ++counts.queries;
+        if (prefix.length() > 0 && !mPrefixes.mightContain(prefix, Math.min(prefix.length(), mMaxPrefixLength))) {
+            ++counts.rejects;
+            return false;
+        }
+        return confirm(counts, mWordList.containsWords(prefix));
+    }
+
+    /** Cursors ask this list one prefix string at a time, so every step goes through the filters. */
+    @Override
+    public WordCursor newCursor() {
+        return new StringPrefixCursor(this);
+    }
+
+    private static boolean confirm(Counts counts, boolean found) {
+        if (!found) {
+            ++counts.falsePositives;
+        }
+        return found;
+    }
+
+    public long getQueryCount() {
+        long total = 0;
+        for (Counts counts : mAllCounts) {
+            total += counts.queries;
+        }
+        return total;
+    }
+
+    /** Queries answered by the filters alone. */
+    public long getRejectCount() {
+        long total = 0;
+        for (Counts counts : mAllCounts) {
+            total += counts.rejects;
+        }
+        return total;
+    }
+
+    /** Queries the filters let through that the wrapped list then answered false. */
+    public long getFalsePositiveCount() {
+        long total = 0;
+        for (Counts counts : mAllCounts) {
+            total += counts.falsePositives;
+        }
+        return total;
+    }
+
+    /** Share of queries answered without the wrapped list. */
+    public double getHitRate() {
+        final long queries = getQueryCount();
+        return queries == 0 ? 0 : (double) getRejectCount() / queries;
+    }
+
+    /** Share of misses the filters failed to reject. */
+    public double getFalsePositiveRate() {
+        final long rejects = getRejectCount();
+        final long falsePositives = getFalsePositiveCount();
+        final long misses = rejects + falsePositives;
+        return misses == 0 ? 0 : (double) falsePositives / misses;
+    }
+
+    public int getSizeInBytes() {
+        return mWords.getSizeInBytes() + mPrefixes.getSizeInBytes();
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        final int end = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < end && a.charAt(i) == b.charAt(i)) {
+            ++i;
+        }
+        return i;
+    }
+
+    private static long hash(CharSequence s, int length) {
+        // FNV-1a over the chars, finished with a full mix so every output bit depends on every char
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; ++i) {
+            hash = (hash ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -7,4 +7,7 @@ public interface Board {
     int getNumRows();
     int getNumCols();
     String getDieFace(int row, int col);
+
+    /** Which cells are next to which; the solver and the UI only step between neighbors. */
+    Topology getTopology();
 }
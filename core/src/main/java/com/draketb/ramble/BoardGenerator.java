@@ -0,0 +1,133 @@
+package com.draketb.ramble;
+
+/**
+ * Rolls boards from a fixed set of dice with a single seedable generator, so the same seed always
+ * produces the same sequence of boards. The generator is SplitMix64, the algorithm behind
+ * java.util.SplittableRandom, which is not available before API 24. Generating into a caller's
+ * array allocates nothing.
+ */
+public class BoardGenerator {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final int MAX_ATTEMPTS = 1000;
+
+    private static final Metrics.LatencyHistogram BOARD_TIME = Metrics.histogram("boardGenerator.nextBoard");
+    private static final Metrics.Counter REJECTED_ROLLS = Metrics.counter("boardGenerator.rejectedRolls");
+
+    private final Die[] mDice;
+    private final int mNumRows;
+    private final int mNumCols;
+    // Whether each face of each die counts towards the vowel minimum
+    private final boolean[][] mVowels;
+    // Dice in shuffled order, reshuffled for every pass over the set
+    private final int[] mOrder;
+    private long mState;
+
+    public BoardGenerator(Die[] dice, int numRows, int numCols, long seed) {
+        mDice = dice.clone();
+        mNumRows = numRows;
+        mNumCols = numCols;
+        mVowels = new boolean[mDice.length][];
+        for (int i = 0; i < mDice.length; ++i) {
+            mVowels[i] = new boolean[mDice[i].getNumFaces()];
+            for (int j = 0; j < mVowels[i].length; ++j) {
+                mVowels[i][j] = isVowel(mDice[i].getFace(j));
+            }
+        }
+        mOrder = new int[mDice.length];
+        for (int i = 0; i < mOrder.length; ++i) {
+            mOrder[i] = i;
+        }
+        mState = seed;
+    }
+
+    /** Seed shared by everyone playing on the given day, counted in days since 1970-01-01. */
+    public static long dailySeed(long epochDay) {
+        return mix64(epochDay * GOLDEN_GAMMA);
+    }
+
+    static boolean isVowel(String dieFace) {
+        switch (dieFace.toUpperCase()) {
+            case "A":
+            case "E":
+            case "I":
+            case "O":
+            case "U":
+                return true;
+        }
+        return false;
+    }
+
+    public void setSeed(long seed) {
+        mState = seed;
+    }
+
+    public int getNumRows() {
+        return mNumRows;
+    }
+
+    public int getNumCols() {
+        return mNumCols;
+    }
+
+    public String[] nextBoard(int minVowelCount) {
+        final String[] faces = new String[mNumRows * mNumCols];
+        nextBoard(minVowelCount, faces);
+        return faces;
+    }
+
+    /**
+     * Fills faces with the next board having at least minVowelCount vowels. Gives up after
+     * MAX_ATTEMPTS rolls and keeps the last one, so an unreachable minimum cannot hang.
+     */
+    public void nextBoard(int minVowelCount, String[] faces) {
+        final long start = System.nanoTime();
+        int attempt = 0;
+        while (roll(faces) < minVowelCount && ++attempt < MAX_ATTEMPTS) {
+            // Too few vowels, roll again
+        }
+        REJECTED_ROLLS.add(attempt);
+        BOARD_TIME.recordSince(start);
+    }
+
+    public long nextLong() {
+        return mix64(mState += GOLDEN_GAMMA);
+    }
+
+    /** Uniform in [0, bound), by multiplying 32 random bits by the bound. */
+    int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    private int roll(String[] faces) {
+        int vowelCount = 0;
+        for (int cell = 0; cell < faces.length; ++cell) {
+            final int position = cell % mOrder.length;
+            if (position == 0) {
+                shuffleOrder();
+            }
+
+            final int die = mOrder[position];
+            final int face = nextInt(mVowels[die].length);
+            faces[cell] = mDice[die].getFace(face);
+            if (mVowels[die][face]) {
+                ++vowelCount;
+            }
+        }
+        return vowelCount;
+    }
+
+    private void shuffleOrder() {
+        for (int i = mOrder.length - 1; i > 0; --i) {
+            final int j = nextInt(i + 1);
+            final int swap = mOrder[i];
+            mOrder[i] = mOrder[j];
+            mOrder[j] = swap;
+        }
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,179 @@
+package com.draketb.ramble;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bounded queue of solved boards that meet a set of minimums, filled by a background
+ * thread, so starting a game never has to solve a board first.
+ */
+public class BoardPool {
+    public static final class Criteria {
+        public final int minVowelCount;
+        public final int minWordCount;
+        public final int minMaxScore;
+        public final int longWordLength;
+        public final int minLongWordCount;
+
+        public Criteria(int minVowelCount, int minWordCount, int minMaxScore, int longWordLength, int minLongWordCount) {
+            this.minVowelCount = minVowelCount;
+            this.minWordCount = minWordCount;
+            this.minMaxScore = minMaxScore;
+            this.longWordLength = longWordLength;
+            this.minLongWordCount = minLongWordCount;
+        }
+    }
+
+    public static final class PooledBoard {
+        private final String[] mFaces;
+        private final List<String> mWords;
+        private final int mMaxScore;
+        private final int mLongWordCount;
+
+        PooledBoard(String[] faces, List<String> words, int maxScore, int longWordCount) {
+            mFaces = faces;
+            mWords = words;
+            mMaxScore = maxScore;
+            mLongWordCount = longWordCount;
+        }
+
+        public String[] getFaces() {
+            return mFaces.clone();
+        }
+
+        public List<String> getWords() {
+            return mWords;
+        }
+
+        public int getMaxScore() {
+            return mMaxScore;
+        }
+
+        public int getLongWordCount() {
+            return mLongWordCount;
+        }
+    }
+
+    private static final Metrics.Gauge QUEUE_DEPTH = Metrics.gauge("boardPool.queueDepth");
+    // Gauges hold whole numbers, so the rate is kept in parts per thousand
+    private static final Metrics.Gauge REJECTION_PER_MILLE = Metrics.gauge("boardPool.rejectionPerMille");
+
+    private final BoardGenerator mGenerator;
+    private final WordList mWordList;
+    private final Criteria mCriteria;
+    private final BlockingQueue<PooledBoard> mQueue;
+    private final AtomicLong mGeneratedCount = new AtomicLong();
+    private final AtomicLong mRejectedCount = new AtomicLong();
+    private Thread mProducer;
+    // Bumped by stop(), so a producer still finishing a solve never draws from the generator again
+    private volatile int mGeneration = 0;
+
+    /** The pool owns generator from here on; it is not safe to share with other threads. */
+    public BoardPool(BoardGenerator generator, WordList wordList, Criteria criteria, int capacity) {
+        mGenerator = generator;
+        mWordList = wordList;
+        mCriteria = criteria;
+        mQueue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public synchronized void start() {
+        if (mProducer != null) {
+            return;
+        }
+
+        final int generation = mGeneration;
+        mProducer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                produce(generation);
+            }
+        }, "BoardPool");
+        mProducer.setDaemon(true);
+        mProducer.setPriority(Thread.MIN_PRIORITY);
+        mProducer.start();
+    }
+
+    public synchronized void stop() {
+        if (mProducer != null) {
+            // The solver ignores interrupts, so the old thread may run on for a while
+            ++mGeneration;
+            mProducer.interrupt();
+            mProducer = null;
+        }
+    }
+
+    /** Returns a ready board, or null right away if none is ready yet. */
+    public PooledBoard poll() {
+        final PooledBoard board = mQueue.poll();
+        QUEUE_DEPTH.set(mQueue.size());
+        return board;
+    }
+
+    public int getQueueDepth() {
+        return mQueue.size();
+    }
+
+    public long getGeneratedCount() {
+        return mGeneratedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return mRejectedCount.get();
+    }
+
+    public double getRejectionRate() {
+        final long generated = mGeneratedCount.get();
+        return generated == 0 ? 0 : (double) mRejectedCount.get() / generated;
+    }
+
+    private void produce(int generation) {
+        final int numRows = mGenerator.getNumRows();
+        final int numCols = mGenerator.getNumCols();
+        final String[] faces = new String[numRows * numCols];
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                synchronized (mGenerator) {
+                    if (generation != mGeneration) {
+                        return;
+                    }
+                    mGenerator.nextBoard(mCriteria.minVowelCount, faces);
+                }
+                final PooledBoard board = evaluate(new FixedArrayBoard(numRows, numCols, faces), faces);
+                final long generated = mGeneratedCount.incrementAndGet();
+                final long rejected = board == null ? mRejectedCount.incrementAndGet() : mRejectedCount.get();
+                // A stopped producer finishing its last solve leaves the gauges to the current one
+                if (generation == mGeneration) {
+                    REJECTION_PER_MILLE.set(rejected * 1000 / generated);
+                }
+                if (board != null) {
+                    mQueue.put(board);
+                    QUEUE_DEPTH.set(mQueue.size());
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    private PooledBoard evaluate(Board board, String[] faces) {
+        final List<String> words = new Solver(board, mWordList).solve();
+        if (words.size() < mCriteria.minWordCount) {
+            return null;
+        }
+
+        int maxScore = 0;
+        int longWordCount = 0;
+        for (String word : words) {
+            maxScore += Solver.getScore(word);
+            if (word.length() >= mCriteria.longWordLength) {
+                ++longWordCount;
+            }
+        }
+        if (maxScore < mCriteria.minMaxScore || longWordCount < mCriteria.minLongWordCount) {
+            return null;
+        }
+        return new PooledBoard(faces.clone(), words, maxScore, longWordCount);
+    }
+}
@@ -0,0 +1,22 @@
+package com.draketb.ramble;
+
+/**
+ * Lets one thread ask a long-running operation on another thread to stop early. Operations poll
+ * {@link #isCancelled()} between steps; cancelling is sticky.
+ */
+public final class CancellationToken {
+    /** A token that is never cancelled. */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private volatile boolean mCancelled = false;
+
+    public void cancel() {
+        if (this != NONE) {
+            mCancelled = true;
+        }
+    }
+
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+}
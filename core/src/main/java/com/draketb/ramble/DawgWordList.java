@@ -0,0 +1,303 @@
+package com.draketb.ramble;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+/**
+ * Minimized DAWG: a trie in which every set of equal subtrees is stored once, so words sharing an
+ * ending share its states. Inflected word lists repeat the same endings under thousands of stems,
+ * which is where this pays off over {@link TrieWordList}.
+ *
+ * States are numbered so that the root is 0 and every edge leads to a higher state. Image layout,
+ * big-endian: magic, version, state count, edge count, word count, then the first edge of each
+ * state as int[stateCount + 1], edge labels as char[edgeCount] and edge targets as
+ * int[edgeCount], each padded to 8 bytes, and the terminal bitset as long[(stateCount + 63) / 64].
+ */
+public final class DawgWordList implements WordList {
+    static final int MAGIC = 0x524d4457; // "RMDW"
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int ROOT = 0;
+    private static final int NO_STATE = -1;
+
+    private final ByteBuffer mBuffer;
+    private final int mStateCount;
+    private final int mEdgeCount;
+    private final int mWordCount;
+    private final int mLabelsOffset;
+    private final int mTargetsOffset;
+    private final int mTerminalOffset;
+    // Length of the longest word below each state, counted from the state; built on first use
+    private volatile byte[] mHeights;
+
+    private DawgWordList(ByteBuffer image) {
+        mBuffer = image;
+        mStateCount = image.getInt(8);
+        mEdgeCount = image.getInt(12);
+        mWordCount = image.getInt(16);
+        mLabelsOffset = align8(HEADER_SIZE + 4 * (mStateCount + 1));
+        mTargetsOffset = align8(mLabelsOffset + 2 * mEdgeCount);
+        mTerminalOffset = align8(mTargetsOffset + 4 * mEdgeCount);
+    }
+
+    /** Wraps an image written by {@link #write}, typically a memory-mapped file. */
+    public static DawgWordList read(ByteBuffer image) throws IOException {
+        final ByteBuffer buffer = image.slice().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a DAWG image");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported DAWG image version " + buffer.getInt(4));
+        }
+        final int stateCount = buffer.getInt(8);
+        final int edgeCount = buffer.getInt(12);
+        if (stateCount < 1 || edgeCount < 0 || buffer.capacity() < imageSize(stateCount, edgeCount)) {
+            throw new IOException("Truncated DAWG image");
+        }
+        return new DawgWordList(buffer);
+    }
+
+    /**
+     * Merges the equal subtrees of trie. Its nodes are visited children first, each one looked up
+     * by its terminal flag, labels and the states of its children in a table of the states found
+     * so far.
+     */
+    public static DawgWordList minimize(AbstractTrieWordList trie) {
+        final int nodeCount = trie.getNodeCount();
+        // The state class of every trie node, and the first node seen in each class
+        final int[] classOf = new int[nodeCount];
+        int[] representatives = new int[1024];
+        int classCount = 0;
+
+        final int[] table = new int[Integer.highestOneBit(Math.max(2 * nodeCount - 1, 1)) << 1];
+        final int mask = table.length - 1;
+        Arrays.fill(table, NO_STATE);
+        for (int node = nodeCount - 1; node >= 0; --node) {
+            int slot = hash(trie, classOf, node) & mask;
+            while (table[slot] != NO_STATE && !equivalent(trie, classOf, representatives[table[slot]], node)) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == NO_STATE) {
+                if (classCount == representatives.length) {
+                    representatives = Arrays.copyOf(representatives, 2 * classCount);
+                }
+                representatives[classCount] = node;
+                table[slot] = classCount++;
+            }
+            classOf[node] = table[slot];
+        }
+
+        // Classes were found children first, so numbering them backwards puts the root at 0
+        int edgeCount = 0;
+        for (int c = 0; c < classCount; ++c) {
+            final int node = representatives[c];
+            edgeCount += trie.firstChild(node + 1) - trie.firstChild(node);
+        }
+        final ByteBuffer image = ByteBuffer.allocate(imageSize(classCount, edgeCount));
+        image.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, classCount).putInt(12, edgeCount).putInt(16, trie.getWordCount());
+        final DawgWordList dawg = new DawgWordList(image);
+
+        int edge = 0;
+        for (int state = 0; state < classCount; ++state) {
+            final int node = representatives[classCount - 1 - state];
+            image.putInt(HEADER_SIZE + 4 * state, edge);
+            for (int child = trie.firstChild(node); child < trie.firstChild(node + 1); ++child, ++edge) {
+                image.putChar(dawg.mLabelsOffset + 2 * edge, trie.label(child));
+                image.putInt(dawg.mTargetsOffset + 4 * edge, classCount - 1 - classOf[child]);
+            }
+            if (trie.isTerminal(node)) {
+                final int offset = dawg.mTerminalOffset + 8 * (state >>> 6);
+                image.putLong(offset, image.getLong(offset) | (1L << state));
+            }
+        }
+        image.putInt(HEADER_SIZE + 4 * classCount, edge);
+        return dawg;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        Channels.newChannel(out).write(mBuffer.duplicate());
+        out.flush();
+    }
+
+    public int getStateCount() {
+        return mStateCount;
+    }
+
+    public int getEdgeCount() {
+        return mEdgeCount;
+    }
+
+    public int getWordCount() {
+        return mWordCount;
+    }
+
+    public int getSizeInBytes() {
+        return mBuffer.capacity();
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        final int state = find(word);
+        return state != NO_STATE && isTerminal(state);
+    }
+
+    @Override
+    public boolean containsWords(String prefix) {
+        final int state = find(prefix);
+        // Every state but the root has a word below it
+        return state != NO_STATE && (state != ROOT || mWordCount > 0);
+    }
+
+    @Override
+    public WordCursor newCursor() {
+        return new Cursor();
+    }
+
+    private int find(String s) {
+        int state = ROOT;
+        for (int i = 0; i < s.length() && state != NO_STATE; ++i) {
+            state = next(state, s.charAt(i));
+        }
+        return state;
+    }
+
+    private int next(int state, char c) {
+        final int end = firstEdge(state + 1);
+        for (int edge = firstEdge(state); edge < end; ++edge) {
+            final char label = mBuffer.getChar(mLabelsOffset + 2 * edge);
+            if (label == c) {
+                return mBuffer.getInt(mTargetsOffset + 4 * edge);
+            }
+            if (label > c) {
+                break;
+            }
+        }
+        return NO_STATE;
+    }
+
+    private int firstEdge(int state) {
+        return mBuffer.getInt(HEADER_SIZE + 4 * state);
+    }
+
+    private boolean isTerminal(int state) {
+        return (mBuffer.getLong(mTerminalOffset + 8 * (state >>> 6)) & (1L << state)) != 0;
+    }
+
+    private int height(int state) {
+        byte[] heights = mHeights;
+        if (heights == null) {
+            // Racing threads compute the same table, so whichever copy lands is fine
+            heights = computeHeights();
+            mHeights = heights;
+        }
+        final int height = heights[state];
+        return height == Byte.MAX_VALUE ? WordCursor.UNBOUNDED : height;
+    }
+
+    private byte[] computeHeights() {
+        // Edges lead to higher states, so one backwards pass suffices
+        final byte[] heights = new byte[mStateCount];
+        for (int state = mStateCount - 1; state >= 0; --state) {
+            int height = 0;
+            final int end = firstEdge(state + 1);
+            for (int edge = firstEdge(state); edge < end; ++edge) {
+                height = Math.max(height, heights[mBuffer.getInt(mTargetsOffset + 4 * edge)] + 1);
+            }
+            heights[state] = (byte) Math.min(height, Byte.MAX_VALUE);
+        }
+        return heights;
+    }
+
+    private static int hash(AbstractTrieWordList trie, int[] classOf, int node) {
+        int hash = trie.isTerminal(node) ? 1 : 0;
+        for (int child = trie.firstChild(node); child < trie.firstChild(node + 1); ++child) {
+            hash = 31 * (31 * hash + trie.label(child)) + classOf[child];
+        }
+        // Spread the low bits, which pick the slot
+        hash ^= hash >>> 16;
+        return hash * 0x45d9f3b;
+    }
+
+    private static boolean equivalent(AbstractTrieWordList trie, int[] classOf, int a, int b) {
+        final int first = trie.firstChild(a);
+        final int count = trie.firstChild(a + 1) - first;
+        final int otherFirst = trie.firstChild(b);
+        if (trie.isTerminal(a) != trie.isTerminal(b) || trie.firstChild(b + 1) - otherFirst != count) {
+            return false;
+        }
+        for (int i = 0; i < count; ++i) {
+            if (trie.label(first + i) != trie.label(otherFirst + i)
+                    || classOf[first + i] != classOf[otherFirst + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int imageSize(int stateCount, int edgeCount) {
+        final int labels = align8(HEADER_SIZE + 4 * (stateCount + 1));
+        final int targets = align8(labels + 2 * edgeCount);
+        final int terminal = align8(targets + 4 * edgeCount);
+        return terminal + 8 * ((stateCount + 63) >>> 6);
+    }
+
+    private static int align8(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private final class Cursor implements WordCursor {
+        // mStates[d] is the state reached after d faces
+        private int[] mStates = new int[17];
+        private int mDepth = 0;
+
+        Cursor() {
+            mStates[0] = ROOT;
+        }
+
+        @Override
+        public boolean advance(String face) {
+            int state = mStates[mDepth];
+            for (int i = 0; i < face.length() && state != NO_STATE; ++i) {
+                state = next(state, Character.toLowerCase(face.charAt(i)));
+            }
+            if (state == NO_STATE) {
+                return false;
+            }
+
+            if (mDepth + 1 == mStates.length) {
+                mStates = Arrays.copyOf(mStates, mStates.length * 2);
+            }
+            mStates[++mDepth] = state;
+            return true;
+        }
+
+        @Override
+        public void back() {
+            --mDepth;
+        }
+
+        @Override
+        public boolean isWord() {
+            return isTerminal(mStates[mDepth]);
+        }
+
+        @Override
+        public int getDepth() {
+            return mDepth;
+        }
+
+        @Override
+        public int getMaxRemainingLength() {
+            return height(mStates[mDepth]);
+        }
+
+        @Override
+        public void reset() {
+            mDepth = 0;
+        }
+    }
+}
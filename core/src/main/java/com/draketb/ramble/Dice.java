@@ -0,0 +1,16 @@
+package com.draketb.ramble;
+
+public final class Dice {
+    private Dice() {
+    }
+
+    /** The sixteen dice of the classic 4x4 game. Returns a new array each time. */
+    public static Die[] classic() {
+        return new Die[] {
+            new Die("RIFOBX"), new Die("IFEHEY"), new Die("DENOWS"), new Die("UTOKND"),
+            new Die("HMSRAO"), new Die("LUPETS"), new Die("ACITOA"), new Die("YLGKUE"),
+            new Die(new String[] {"Qu", "B", "M", "J", "O", "A"}), new Die("EHISPN"), new Die("VETIGN"), new Die("BALIYT"),
+            new Die("EZAVND"), new Die("RALESC"), new Die("UWILRG"), new Die("PACEMD")
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.draketb.ramble;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * A built dictionary saved to a file, so later runs can map it instead of parsing the word list
+ * again. The image of a {@link DawgWordList} is wrapped in a header recording the snapshot
+ * format, the version of the source it was built from and a CRC32 of the image.
+ *
+ * Header layout, big-endian: magic, format version, source version as a long, image length,
+ * image CRC32.
+ */
+public final class DictionarySnapshot {
+    private static final int MAGIC = 0x524d4453; // "RMDS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 24;
+    private static final int CRC_CHUNK = 64 * 1024;
+
+    private DictionarySnapshot() {
+    }
+
+    /**
+     * Writes dawg to file, tagged with sourceVersion. The snapshot is written beside file and
+     * renamed over it, so readers never see a partial one.
+     */
+    public static void write(DawgWordList dawg, long sourceVersion, File file) throws IOException {
+        final ByteArrayOutputStream image = new ByteArrayOutputStream(dawg.getSizeInBytes());
+        dawg.write(image);
+        final CRC32 crc = new CRC32();
+        crc.update(image.toByteArray());
+
+        final File temp = new File(file.getPath() + ".tmp");
+        final FileOutputStream out = new FileOutputStream(temp);
+        try {
+            final DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeLong(sourceVersion);
+            data.writeInt(image.size());
+            data.writeInt((int) crc.getValue());
+            image.writeTo(data);
+            data.flush();
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Failed to replace " + file);
+        }
+    }
+
+    /**
+     * Maps the snapshot in file. Returns null if it was built from a source version other than
+     * sourceVersion, or by another snapshot format; throws if it is missing, truncated or fails its
+     * checksum.
+     */
+    public static DawgWordList load(File file, long sourceVersion) throws IOException {
+        final MappedByteBuffer buffer;
+        final RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            // The mapping stays valid after the file is closed
+            buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+        } finally {
+            in.close();
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary snapshot: " + file);
+        }
+        if (buffer.getInt(4) != VERSION || buffer.getLong(8) != sourceVersion) {
+            return null;
+        }
+        final int length = buffer.getInt(16);
+        if (length < 0 || buffer.capacity() - HEADER_SIZE != length) {
+            throw new IOException("Truncated dictionary snapshot: " + file);
+        }
+
+        buffer.position(HEADER_SIZE);
+        final ByteBuffer image = buffer.slice();
+        if ((int) checksum(image) != buffer.getInt(20)) {
+            throw new IOException("Corrupt dictionary snapshot: " + file);
+        }
+        return DawgWordList.read(image);
+    }
+
+    private static long checksum(ByteBuffer image) {
+        // CRC32.update(ByteBuffer) needs API 26, so go through a small array
+        final CRC32 crc = new CRC32();
+        final byte[] chunk = new byte[CRC_CHUNK];
+        final ByteBuffer view = image.duplicate();
+        while (view.hasRemaining()) {
+            final int count = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, count);
+            crc.update(chunk, 0, count);
+        }
+        return crc.getValue();
+    }
+}
@@ -2,7 +2,9 @@ package com.draketb.ramble;
 
 import java.util.Random;
 
-class Die {
+public class Die {
+    private static final Random RANDOM = new Random();
+
     private final String[] _faces;
 
     public Die(String[] faces) {
@@ -21,6 +23,14 @@ class Die {
             return "";
         }
 
-        return _faces[new Random().nextInt(_faces.length)];
+        return _faces[RANDOM.nextInt(_faces.length)];
+    }
+
+    public int getNumFaces() {
+        return _faces == null ? 0 : _faces.length;
+    }
+
+    public String getFace(int index) {
+        return _faces[index];
     }
-}
\ No newline at end of file
+}
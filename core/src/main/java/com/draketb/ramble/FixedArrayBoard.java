@@ -4,13 +4,19 @@ package com.draketb.ramble;
  * Created by draketb on 5/5/16.
  */
 public class FixedArrayBoard implements Board {
+    private final Topology mTopology;
     private final int mNumRows;
     private final int mNumCols;
     private final String[] mDieFaces;
 
     public FixedArrayBoard(int numRows, int numCols, String[] dieFaces) {
-        mNumRows = numRows;
-        mNumCols = numCols;
+        this(Topology.grid(numRows, numCols), dieFaces);
+    }
+
+    public FixedArrayBoard(Topology topology, String[] dieFaces) {
+        mTopology = topology;
+        mNumRows = topology.getNumRows();
+        mNumCols = topology.getNumCols();
         mDieFaces = dieFaces;
     }
 
@@ -30,11 +36,17 @@ public class FixedArrayBoard implements Board {
             return null;
         }
 
+        // Masked cells read as blank, like the padding past the end of a short face array
         final int index = row * mNumCols + col;
-        if (index >= mDieFaces.length) {
+        if (index >= mDieFaces.length || mTopology.isMasked(index)) {
             return "";
         }
 
         return mDieFaces[index];
     }
+
+    @Override
+    public Topology getTopology() {
+        return mTopology;
+    }
 }
@@ -0,0 +1,73 @@
+package com.draketb.ramble;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A dictionary and the dice that go with it. Adding a language takes its word list in UTF-8
+ * under the app's src/main/dictionary, which the build compiles to dictionaryName + ".dict", its
+ * dice in {@link Dice}, and an entry here.
+ */
+public final class Language {
+    public static final Language ENGLISH = new Language("en", "English", "enable1", Dice.classic());
+
+    private static final List<Language> ALL = Collections.unmodifiableList(Arrays.asList(ENGLISH));
+
+    private final String mId;
+    private final String mDisplayName;
+    private final String mDictionaryName;
+    private final Die[] mDice;
+
+    private Language(String id, String displayName, String dictionaryName, Die[] dice) {
+        mId = id;
+        mDisplayName = displayName;
+        mDictionaryName = dictionaryName;
+        mDice = dice;
+    }
+
+    public static List<Language> all() {
+        return ALL;
+    }
+
+    /** The language with the given id, or null. */
+    public static Language forId(String id) {
+        for (Language language : ALL) {
+            if (language.mId.equals(id)) {
+                return language;
+            }
+        }
+        return null;
+    }
+
+    /** The language of locale, or English if there is no dictionary for it. */
+    public static Language forLocale(Locale locale) {
+        final Language language = forId(locale.getLanguage());
+        return language != null ? language : ENGLISH;
+    }
+
+    /** ISO 639 code, as returned by Locale.getLanguage(). */
+    public String getId() {
+        return mId;
+    }
+
+    public String getDisplayName() {
+        return mDisplayName;
+    }
+
+    /** Names the compiled dictionary asset and anything cached from it. */
+    public String getDictionaryName() {
+        return mDictionaryName;
+    }
+
+    /** Returns a new array each time. */
+    public Die[] getDice() {
+        return mDice.clone();
+    }
+
+    @Override
+    public String toString() {
+        return mDisplayName;
+    }
+}
@@ -0,0 +1,249 @@
+package com.draketb.ramble;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Trie encoded as a LOUDS bit string in a direct ByteBuffer, keeping the dictionary off the Java
+ * heap at roughly 12 bits per node.
+ *
+ * Nodes are numbered breadth-first like {@link TrieWordList}. Node i contributes one 1 bit per
+ * child followed by a 0 bit, so its children start at node select0(i - 1) + 2 - i. A rank
+ * directory and sampled select0 positions make that O(1). Labels are stored as one byte per node,
+ * indexing a small alphabet table.
+ */
+public final class LoudsWordList extends AbstractTrieWordList {
+    private static final int BLOCK_BITS = 512;
+    private static final int LONGS_PER_BLOCK = BLOCK_BITS / 64;
+    private static final int SELECT_SAMPLE = 512;
+
+    private final ByteBuffer mBuffer;
+    private final char[] mAlphabet;
+    private final int mNodeCount;
+    private final int mWordCount;
+    private final int mNumBits;
+    private final int mNumZeros;
+    // Byte offsets of each section within mBuffer
+    private final int mRankOffset;
+    private final int mSelectOffset;
+    private final int mLabelsOffset;
+    private final int mTerminalOffset;
+
+    public LoudsWordList(AbstractTrieWordList trie) {
+        mNodeCount = trie.getNodeCount();
+        mWordCount = trie.getWordCount();
+        mNumBits = 2 * mNodeCount - 1;
+        mNumZeros = mNodeCount;
+        mAlphabet = buildAlphabet(trie);
+
+        final int numLongs = (mNumBits + 63) >>> 6;
+        final int numBlocks = (mNumBits + BLOCK_BITS - 1) / BLOCK_BITS;
+        final int numSamples = (mNumZeros + SELECT_SAMPLE - 1) / SELECT_SAMPLE;
+        mRankOffset = 8 * numLongs;
+        mSelectOffset = mRankOffset + 4 * (numBlocks + 1);
+        mLabelsOffset = mSelectOffset + 4 * numSamples;
+        mTerminalOffset = (mLabelsOffset + mNodeCount + 7) & ~7;
+        final int size = mTerminalOffset + 8 * ((mNodeCount + 63) >>> 6);
+
+        mBuffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        writeBits(trie);
+        writeRankAndSelect(numLongs, numBlocks);
+        writeLabelsAndTerminals(trie);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return mNodeCount;
+    }
+
+    @Override
+    public int getWordCount() {
+        return mWordCount;
+    }
+
+    /** Off-heap bytes used by the encoded trie. */
+    public int getSizeInBytes() {
+        return mBuffer.capacity();
+    }
+
+    @Override
+    int firstChild(int node) {
+        return node == ROOT ? 1 : select0(node - 1) + 2 - node;
+    }
+
+    @Override
+    int child(int node, char c) {
+        // Walk the run of 1 bits for node directly instead of calling select0 for both ends
+        int position = node == ROOT ? 0 : select0(node - 1) + 1;
+        int child = position + 1 - node;
+        for (; position < mNumBits && bit(position); ++position, ++child) {
+            final char label = label(child);
+            if (label == c) {
+                return child;
+            }
+            if (label > c) {
+                break;
+            }
+        }
+        return NO_NODE;
+    }
+
+    @Override
+    char label(int node) {
+        return mAlphabet[mBuffer.get(mLabelsOffset + node) & 0xff];
+    }
+
+    @Override
+    boolean isTerminal(int node) {
+        return (mBuffer.getLong(mTerminalOffset + 8 * (node >>> 6)) & (1L << node)) != 0;
+    }
+
+    /** Number of 1 bits in positions [0, position). */
+    int rank1(int position) {
+        final int block = position / BLOCK_BITS;
+        int rank = mBuffer.getInt(mRankOffset + 4 * block);
+        final int word = position >>> 6;
+        for (int i = block * LONGS_PER_BLOCK; i < word; ++i) {
+            rank += Long.bitCount(bits(i));
+        }
+        if ((position & 63) != 0) {
+            rank += Long.bitCount(bits(word) & (-1L >>> (64 - (position & 63))));
+        }
+        return rank;
+    }
+
+    /** Position of the k-th 0 bit, counting from 0. */
+    int select0(int k) {
+        int block = mBuffer.getInt(mSelectOffset + 4 * (k / SELECT_SAMPLE));
+        while (zerosBefore(block + 1) <= k) {
+            ++block;
+        }
+
+        int remaining = k - zerosBefore(block);
+        for (int i = block * LONGS_PER_BLOCK; ; ++i) {
+            final long zeros = ~bits(i);
+            final int count = Long.bitCount(zeros);
+            if (remaining < count) {
+                return 64 * i + selectInWord(zeros, remaining);
+            }
+            remaining -= count;
+        }
+    }
+
+    int getNumBits() {
+        return mNumBits;
+    }
+
+    private boolean bit(int position) {
+        return (bits(position >>> 6) & (1L << position)) != 0;
+    }
+
+    private long bits(int word) {
+        return mBuffer.getLong(8 * word);
+    }
+
+    private int zerosBefore(int block) {
+        return block * BLOCK_BITS - mBuffer.getInt(mRankOffset + 4 * block);
+    }
+
+    private static int selectInWord(long word, int k) {
+        // Skip whole bytes, then clear the remaining lower set bits one at a time
+        int shift = 0;
+        for (int count = Long.bitCount(word & 0xff); k >= count; count = Long.bitCount((word >>> shift) & 0xff)) {
+            k -= count;
+            shift += 8;
+        }
+        long bits = (word >>> shift) & 0xff;
+        for (int i = 0; i < k; ++i) {
+            bits &= bits - 1;
+        }
+        return shift + Long.numberOfTrailingZeros(bits);
+    }
+
+    private static char[] buildAlphabet(AbstractTrieWordList trie) {
+        final boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        int size = 0;
+        for (int i = 1; i < trie.getNodeCount(); ++i) {
+            if (!seen[trie.label(i)]) {
+                seen[trie.label(i)] = true;
+                ++size;
+            }
+        }
+        if (size > 256) {
+            throw new IllegalArgumentException("Alphabet of " + size + " letters does not fit in a byte");
+        }
+
+        // Ascending order, so label codes sort the same way as the labels themselves
+        final char[] alphabet = new char[size];
+        int index = 0;
+        for (int c = 0; c < seen.length; ++c) {
+            if (seen[c]) {
+                alphabet[index++] = (char) c;
+            }
+        }
+        return alphabet;
+    }
+
+    private void writeBits(AbstractTrieWordList trie) {
+        long word = 0;
+        int position = 0;
+        for (int node = 0; node < mNodeCount; ++node) {
+            final int children = trie.firstChild(node + 1) - trie.firstChild(node);
+            for (int i = 0; i <= children; ++i) {
+                if (i < children) {
+                    word |= 1L << position;
+                }
+                if ((++position & 63) == 0) {
+                    mBuffer.putLong(8 * ((position >>> 6) - 1), word);
+                    word = 0;
+                }
+            }
+        }
+        if ((position & 63) != 0) {
+            mBuffer.putLong(8 * (position >>> 6), word);
+        }
+    }
+
+    private void writeRankAndSelect(int numLongs, int numBlocks) {
+        int rank = 0;
+        int zeros = 0;
+        for (int block = 0; block <= numBlocks; ++block) {
+            mBuffer.putInt(mRankOffset + 4 * block, rank);
+            if (block == numBlocks) {
+                break;
+            }
+
+            for (int i = block * LONGS_PER_BLOCK; i < Math.min(numLongs, (block + 1) * LONGS_PER_BLOCK); ++i) {
+                final long word = bits(i);
+                final int validBits = Math.min(64, mNumBits - 64 * i);
+                final int blockZeros = validBits - Long.bitCount(word);
+                // Record the block holding every SELECT_SAMPLE-th zero
+                for (int k = (zeros + SELECT_SAMPLE - 1) / SELECT_SAMPLE * SELECT_SAMPLE;
+                        k < zeros + blockZeros; k += SELECT_SAMPLE) {
+                    mBuffer.putInt(mSelectOffset + 4 * (k / SELECT_SAMPLE), block);
+                }
+                rank += Long.bitCount(word);
+                zeros += blockZeros;
+            }
+        }
+    }
+
+    private void writeLabelsAndTerminals(AbstractTrieWordList trie) {
+        final int[] codes = new int[Character.MAX_VALUE + 1];
+        for (int i = 0; i < mAlphabet.length; ++i) {
+            codes[mAlphabet[i]] = i;
+        }
+
+        long terminal = 0;
+        for (int node = 0; node < mNodeCount; ++node) {
+            mBuffer.put(mLabelsOffset + node, (byte) (node == ROOT ? 0 : codes[trie.label(node)]));
+            if (trie.isTerminal(node)) {
+                terminal |= 1L << node;
+            }
+            if ((node & 63) == 63 || node == mNodeCount - 1) {
+                mBuffer.putLong(mTerminalOffset + 8 * (node >>> 6), terminal);
+                terminal = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.draketb.ramble;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Trie queried in place from a binary image, typically a memory-mapped asset, so nothing is
+ * parsed or copied onto the heap when the dictionary is opened.
+ *
+ * Image layout, big-endian: magic, version, node count, word count, then firstChild as
+ * int[nodeCount + 1], labels as char[nodeCount] padded to 8 bytes, and the terminal bitset as
+ * long[(nodeCount + 63) / 64].
+ */
+public final class MappedTrieWordList extends AbstractTrieWordList {
+    static final int MAGIC = 0x524d4254; // "RMBT"
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final ByteBuffer mBuffer;
+    private final int mNodeCount;
+    private final int mWordCount;
+    private final int mLabelsOffset;
+    private final int mTerminalOffset;
+
+    public MappedTrieWordList(ByteBuffer image) throws IOException {
+        mBuffer = image.slice().order(ByteOrder.BIG_ENDIAN);
+        if (mBuffer.capacity() < HEADER_SIZE || mBuffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a trie image");
+        }
+        if (mBuffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported trie image version " + mBuffer.getInt(4));
+        }
+
+        mNodeCount = mBuffer.getInt(8);
+        mWordCount = mBuffer.getInt(12);
+        mLabelsOffset = HEADER_SIZE + 4 * (mNodeCount + 1);
+        mTerminalOffset = align8(mLabelsOffset + 2 * mNodeCount);
+        if (mNodeCount < 1 || mBuffer.capacity() < mTerminalOffset + 8 * ((mNodeCount + 63) >>> 6)) {
+            throw new IOException("Truncated trie image");
+        }
+    }
+
+    public static MappedTrieWordList map(FileChannel channel, long offset, long length) throws IOException {
+        return new MappedTrieWordList(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    public static void write(AbstractTrieWordList trie, OutputStream out) throws IOException {
+        final int nodeCount = trie.getNodeCount();
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(nodeCount);
+        data.writeInt(trie.getWordCount());
+        for (int i = 0; i <= nodeCount; ++i) {
+            data.writeInt(trie.firstChild(i));
+        }
+        for (int i = 0; i < nodeCount; ++i) {
+            data.writeChar(trie.label(i));
+        }
+        for (int i = data.size(); i < align8(data.size()); ++i) {
+            data.writeByte(0);
+        }
+        for (int i = 0; i < nodeCount; i += 64) {
+            long bits = 0;
+            for (int j = i; j < Math.min(i + 64, nodeCount); ++j) {
+                if (trie.isTerminal(j)) {
+                    bits |= 1L << j;
+                }
+            }
+            data.writeLong(bits);
+        }
+        data.flush();
+    }
+
+    @Override
+    public int getNodeCount() {
+        return mNodeCount;
+    }
+
+    @Override
+    public int getWordCount() {
+        return mWordCount;
+    }
+
+    @Override
+    int firstChild(int node) {
+        return mBuffer.getInt(HEADER_SIZE + 4 * node);
+    }
+
+    @Override
+    char label(int node) {
+        return mBuffer.getChar(mLabelsOffset + 2 * node);
+    }
+
+    @Override
+    boolean isTerminal(int node) {
+        return (mBuffer.getLong(mTerminalOffset + 8 * (node >>> 6)) & (1L << node)) != 0;
+    }
+
+    private static int align8(int offset) {
+        return (offset + 7) & ~7;
+    }
+}
@@ -0,0 +1,235 @@
+package com.draketb.ramble;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide counters, gauges and latency histograms. Looking a metric up by name allocates the
+ * first time; recording into one never allocates or locks, so hot paths keep the metric in a
+ * static field and record freely.
+ */
+public final class Metrics {
+    public static final class Counter {
+        private final AtomicLong mCount = new AtomicLong();
+
+        public long increment() {
+            return mCount.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            mCount.addAndGet(delta);
+        }
+
+        public long get() {
+            return mCount.get();
+        }
+    }
+
+    public static final class Gauge {
+        private final AtomicLong mValue = new AtomicLong();
+
+        public void set(long value) {
+            mValue.set(value);
+        }
+
+        public long get() {
+            return mValue.get();
+        }
+    }
+
+    /**
+     * Durations in nanoseconds, counted in power-of-two buckets: bucket b holds durations in
+     * [2^(b-1), 2^b), bucket 0 holds zero. Percentiles are reported as the upper bound of their
+     * bucket, so they are within a factor of two.
+     */
+    public static final class LatencyHistogram {
+        private static final int NUM_BUCKETS = 64;
+
+        private final AtomicLongArray mBuckets = new AtomicLongArray(NUM_BUCKETS);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mSum = new AtomicLong();
+        private final AtomicLong mMax = new AtomicLong();
+
+        /** Records the time since startNanos, a value from System.nanoTime(). */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            mBuckets.incrementAndGet(Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+            mCount.incrementAndGet();
+            mSum.addAndGet(nanos);
+            for (long max = mMax.get(); nanos > max && !mMax.compareAndSet(max, nanos); max = mMax.get()) {
+                // Lost a race with another record, try again against the new max
+            }
+        }
+
+        public long getCount() {
+            return mCount.get();
+        }
+
+        public long getSum() {
+            return mSum.get();
+        }
+
+        public long getMax() {
+            return mMax.get();
+        }
+
+        /** Upper bound of the bucket holding the given fraction of recorded durations. */
+        public long percentile(double fraction) {
+            final long count = mCount.get();
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < NUM_BUCKETS; ++bucket) {
+                seen += mBuckets.get(bucket);
+                if (seen >= rank) {
+                    return Math.min(bucketLimit(bucket), mMax.get());
+                }
+            }
+            return mMax.get();
+        }
+
+        private static long bucketLimit(int bucket) {
+            return bucket == 0 ? 0 : bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+    }
+
+    private static final ConcurrentMap<String, Counter> sCounters = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Gauge> sGauges = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> sHistograms = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        Counter counter = sCounters.get(name);
+        if (counter == null) {
+            sCounters.putIfAbsent(name, new Counter());
+            counter = sCounters.get(name);
+        }
+        return counter;
+    }
+
+    public static Gauge gauge(String name) {
+        Gauge gauge = sGauges.get(name);
+        if (gauge == null) {
+            sGauges.putIfAbsent(name, new Gauge());
+            gauge = sGauges.get(name);
+        }
+        return gauge;
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = sHistograms.get(name);
+        if (histogram == null) {
+            sHistograms.putIfAbsent(name, new LatencyHistogram());
+            histogram = sHistograms.get(name);
+        }
+        return histogram;
+    }
+
+    /** One human-readable line per metric, sorted by name, for logging. */
+    public static List<String> toLines() {
+        final List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Counter> e : new TreeMap<>(sCounters).entrySet()) {
+            lines.add(e.getKey() + " = " + e.getValue().get());
+        }
+        for (Map.Entry<String, Gauge> e : new TreeMap<>(sGauges).entrySet()) {
+            lines.add(e.getKey() + " = " + e.getValue().get());
+        }
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(sHistograms).entrySet()) {
+            final LatencyHistogram h = e.getValue();
+            lines.add(String.format("%s: n=%d mean=%dns p50<=%dns p90<=%dns p99<=%dns max=%dns",
+                    e.getKey(), h.getCount(), h.getCount() == 0 ? 0 : h.getSum() / h.getCount(),
+                    h.percentile(0.5), h.percentile(0.9), h.percentile(0.99), h.getMax()));
+        }
+        return lines;
+    }
+
+    /** A snapshot of every metric as a JSON object, for saving and comparing runs. */
+    public static String toJson() {
+        final StringBuilder json = new StringBuilder("{\"counters\":{");
+        String separator = "";
+        for (Map.Entry<String, Counter> e : new TreeMap<>(sCounters).entrySet()) {
+            json.append(separator).append(quote(e.getKey())).append(':').append(e.getValue().get());
+            separator = ",";
+        }
+        json.append("},\"gauges\":{");
+        separator = "";
+        for (Map.Entry<String, Gauge> e : new TreeMap<>(sGauges).entrySet()) {
+            json.append(separator).append(quote(e.getKey())).append(':').append(e.getValue().get());
+            separator = ",";
+        }
+        json.append("},\"histograms\":{");
+        separator = "";
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(sHistograms).entrySet()) {
+            final LatencyHistogram h = e.getValue();
+            json.append(separator).append(quote(e.getKey()))
+                    .append(":{\"count\":").append(h.getCount())
+                    .append(",\"sumNanos\":").append(h.getSum())
+                    .append(",\"maxNanos\":").append(h.getMax())
+                    .append(",\"p50Nanos\":").append(h.percentile(0.5))
+                    .append(",\"p90Nanos\":").append(h.percentile(0.9))
+                    .append(",\"p99Nanos\":").append(h.percentile(0.99))
+                    .append(",\"buckets\":[");
+            // Trailing empty buckets are left out
+            int last = LatencyHistogram.NUM_BUCKETS - 1;
+            while (last >= 0 && h.mBuckets.get(last) == 0) {
+                --last;
+            }
+            for (int bucket = 0; bucket <= last; ++bucket) {
+                json.append(bucket == 0 ? "" : ",").append(h.mBuckets.get(bucket));
+            }
+            json.append("]}");
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+
+    /** Forgets every recorded value, keeping the metrics themselves. */
+    public static void reset() {
+        for (Counter counter : sCounters.values()) {
+            counter.mCount.set(0);
+        }
+        for (Gauge gauge : sGauges.values()) {
+            gauge.mValue.set(0);
+        }
+        for (LatencyHistogram histogram : sHistograms.values()) {
+            for (int bucket = 0; bucket < LatencyHistogram.NUM_BUCKETS; ++bucket) {
+                histogram.mBuckets.set(bucket, 0);
+            }
+            histogram.mCount.set(0);
+            histogram.mSum.set(0);
+            histogram.mMax.set(0);
+        }
+    }
+
+    /** s as a JSON string literal. */
+    public static String quote(String s) {
+        final StringBuilder quoted = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
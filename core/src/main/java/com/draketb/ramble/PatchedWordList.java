@@ -0,0 +1,460 @@
+package com.draketb.ramble;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * WordList that takes additions and removals as small overlays on an immutable base, so a patch
+ * costs time in proportion to the patch rather than the overlay or the dictionary. Once the
+ * overlay reaches a threshold it is folded into a new base in the background, and that base
+ * becomes the baseline later patches are kept against.
+ *
+ * Readers see an immutable state published through an atomic reference, and cursors stay on the
+ * state that was current when they were created. Prefix queries may still answer true for a
+ * prefix whose only words have all been removed, until the next compaction.
+ */
+public class PatchedWordList implements WordList {
+    public interface Compactor {
+        /**
+         * Builds base less removed, plus added. base is what the last compaction returned, or the
+         * word list this one was created with; the two sets never share a word. Called on the
+         * executor, one compaction at a time.
+         */
+        WordList compact(WordList base, Set<String> added, Set<String> removed) throws Exception;
+    }
+
+    /**
+     * Persistent trie: adding or removing a word copies only the nodes on its path, so every
+     * version stays valid for the readers that hold it.
+     */
+    private static final class Overlay {
+        static final Overlay EMPTY = new Overlay(Node.EMPTY, 0);
+
+        final Node root;
+        final int size;
+
+        private Overlay(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        Overlay with(String word) {
+            final Node root = this.root.with(word, 0);
+            return root == this.root ? this : new Overlay(root, size + 1);
+        }
+
+        Overlay without(String word) {
+            final Node root = this.root.without(word, 0);
+            return root == this.root ? this : new Overlay(root, size - 1);
+        }
+
+        boolean contains(String word) {
+            final Node node = root.find(word);
+            return node != null && node.terminal;
+        }
+
+        boolean containsPrefix(String prefix) {
+            // Empty nodes are pruned, so only the root can be reached without a word below it
+            final Node node = root.find(prefix);
+            return node != null && (node != root || size > 0);
+        }
+    }
+
+    private static final class Node {
+        static final Node EMPTY = new Node(new char[0], new Node[0], false);
+
+        // Sorted labels, and the child under each
+        final char[] labels;
+        final Node[] children;
+        final boolean terminal;
+        // Length of the longest word below this node, counted from it
+        final int height;
+
+        Node(char[] labels, Node[] children, boolean terminal) {
+            this.labels = labels;
+            this.children = children;
+            this.terminal = terminal;
+            int height = 0;
+            for (Node child : children) {
+                height = Math.max(height, child.height + 1);
+            }
+            this.height = height;
+        }
+
+        Node child(char label) {
+            final int index = Arrays.binarySearch(labels, label);
+            return index < 0 ? null : children[index];
+        }
+
+        Node find(String s) {
+            Node node = this;
+            for (int i = 0; i < s.length() && node != null; ++i) {
+                node = node.child(s.charAt(i));
+            }
+            return node;
+        }
+
+        /** This node with word.substring(depth) below it; this if it was there already. */
+        Node with(String word, int depth) {
+            if (depth == word.length()) {
+                return terminal ? this : new Node(labels, children, true);
+            }
+            final char label = word.charAt(depth);
+            final int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                final Node child = children[index].with(word, depth + 1);
+                if (child == children[index]) {
+                    return this;
+                }
+                final Node[] newChildren = children.clone();
+                newChildren[index] = child;
+                return new Node(labels, newChildren, terminal);
+            }
+
+            final int insert = -index - 1;
+            final char[] newLabels = new char[labels.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            newLabels[insert] = label;
+            newChildren[insert] = EMPTY.with(word, depth + 1);
+            System.arraycopy(labels, insert, newLabels, insert + 1, labels.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            return new Node(newLabels, newChildren, terminal);
+        }
+
+        /** This node without word.substring(depth) below it, pruning nodes left empty. */
+        Node without(String word, int depth) {
+            if (depth == word.length()) {
+                return terminal ? new Node(labels, children, false) : this;
+            }
+            final int index = Arrays.binarySearch(labels, word.charAt(depth));
+            if (index < 0) {
+                return this;
+            }
+            final Node child = children[index].without(word, depth + 1);
+            if (child == children[index]) {
+                return this;
+            }
+            if (child.terminal || child.children.length > 0) {
+                final Node[] newChildren = children.clone();
+                newChildren[index] = child;
+                return new Node(labels, newChildren, terminal);
+            }
+
+            final char[] newLabels = new char[labels.length - 1];
+            final Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new Node(newLabels, newChildren, terminal);
+        }
+    }
+
+    private static final class State {
+        final WordList base;
+        // Words added that base lacks, and words removed that base has
+        final Overlay added;
+        final Overlay removed;
+
+        State(WordList base, Overlay added, Overlay removed) {
+            this.base = base;
+            this.added = added;
+            this.removed = removed;
+        }
+    }
+
+    private final Executor mExecutor;
+    private final Compactor mCompactor;
+    private final int mCompactionThreshold;
+    private final AtomicReference<State> mState;
+    // Every patch since the running or last compaction took its copy; guarded by this
+    private final Set<String> mAdded = new HashSet<>();
+    private final Set<String> mRemoved = new HashSet<>();
+    // The running compaction, or null; guarded by this
+    private Future<WordList> mCompaction = null;
+
+    /** Compacts on executor once the overlay holds compactionThreshold words. */
+    public PatchedWordList(WordList base, Executor executor, Compactor compactor, int compactionThreshold) {
+        mExecutor = executor;
+        mCompactor = compactor;
+        mCompactionThreshold = compactionThreshold;
+        mState = new AtomicReference<>(new State(base, Overlay.EMPTY, Overlay.EMPTY));
+    }
+
+    /**
+     * Removes removals and then adds additions, so a word in both ends up added. Words are
+     * expected in lower case, as the loaders store them.
+     */
+    public synchronized void apply(Collection<String> additions, Collection<String> removals) {
+        final State state = mState.get();
+        Overlay added = state.added;
+        Overlay removed = state.removed;
+        for (String word : removals) {
+            mAdded.remove(word);
+            mRemoved.add(word);
+            if (added.contains(word)) {
+                added = added.without(word);
+            } else if (state.base.containsWord(word)) {
+                removed = removed.with(word);
+            }
+        }
+        for (String word : additions) {
+            mRemoved.remove(word);
+            mAdded.add(word);
+            if (removed.contains(word)) {
+                removed = removed.without(word);
+            } else if (!state.base.containsWord(word)) {
+                added = added.with(word);
+            }
+        }
+        mState.set(new State(state.base, added, removed));
+
+        if (added.size + removed.size >= mCompactionThreshold && mCompaction == null) {
+            compact();
+        }
+    }
+
+    /**
+     * Folds every patch so far into a new base on the executor, or returns the compaction already
+     * running. Patches applied while it runs are kept as the overlay of the new base. If it fails,
+     * its patches are kept for the next one.
+     */
+    public synchronized Future<WordList> compact() {
+        if (mCompaction != null) {
+            return mCompaction;
+        }
+        final WordList base = mState.get().base;
+        final Set<String> added = new HashSet<>(mAdded);
+        final Set<String> removed = new HashSet<>(mRemoved);
+        mAdded.clear();
+        mRemoved.clear();
+        final FutureTask<WordList> task = new FutureTask<>(new Callable<WordList>() {
+            @Override
+            public WordList call() throws Exception {
+                boolean rebased = false;
+                try {
+                    final WordList newBase = mCompactor.compact(base, added, removed);
+                    rebase(newBase);
+                    rebased = true;
+                    return newBase;
+                } finally {
+                    finishCompaction(rebased ? null : added, rebased ? null : removed);
+                }
+            }
+        });
+        mCompaction = task;
+        mExecutor.execute(task);
+        return task;
+    }
+
+    public WordList getBase() {
+        return mState.get().base;
+    }
+
+    /** Number of words the overlay adds or hides. */
+    public int getOverlaySize() {
+        final State state = mState.get();
+        return state.added.size + state.removed.size;
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        final State state = mState.get();
+        if (state.added.contains(word)) {
+            return true;
+        }
+        return !state.removed.contains(word) && state.base.containsWord(word);
+    }
+
+    @Override
+    public boolean containsWords(String prefix) {
+        final State state = mState.get();
+        return state.added.containsPrefix(prefix) || state.base.containsWords(prefix);
+    }
+
+    @Override
+    public WordCursor newCursor() {
+        final State state = mState.get();
+        if (state.added.size == 0 && state.removed.size == 0) {
+            return state.base.newCursor();
+        }
+        return new Cursor(state);
+    }
+
+    private synchronized void rebase(WordList base) {
+        // The journal now holds only the patches made since compaction began
+        Overlay added = Overlay.EMPTY;
+        for (String word : mAdded) {
+            if (!base.containsWord(word)) {
+                added = added.with(word);
+            }
+        }
+        Overlay removed = Overlay.EMPTY;
+        for (String word : mRemoved) {
+            if (base.containsWord(word)) {
+                removed = removed.with(word);
+            }
+        }
+        mState.set(new State(base, added, removed));
+    }
+
+    /** Puts back the patches of a failed compaction, under any made since. */
+    private synchronized void finishCompaction(Set<String> failedAdded, Set<String> failedRemoved) {
+        mCompaction = null;
+        if (failedAdded == null) {
+            return;
+        }
+        for (String word : failedAdded) {
+            if (!mRemoved.contains(word)) {
+                mAdded.add(word);
+            }
+        }
+        for (String word : failedRemoved) {
+            if (!mAdded.contains(word)) {
+                mRemoved.add(word);
+            }
+        }
+    }
+
+    /** Walks one overlay, keeping the node reached after each face. */
+    private static final class OverlayCursor implements WordCursor {
+        private final Node mRoot;
+        private Node[] mNodes = new Node[17];
+        private int mDepth = 0;
+
+        OverlayCursor(Overlay overlay) {
+            mRoot = overlay.root;
+            mNodes[0] = mRoot;
+        }
+
+        @Override
+        public boolean advance(String face) {
+            Node node = mNodes[mDepth];
+            for (int i = 0; i < face.length() && node != null; ++i) {
+                node = node.child(Character.toLowerCase(face.charAt(i)));
+            }
+            if (node == null) {
+                return false;
+            }
+
+            if (mDepth + 1 == mNodes.length) {
+                mNodes = Arrays.copyOf(mNodes, mNodes.length * 2);
+            }
+            mNodes[++mDepth] = node;
+            return true;
+        }
+
+        @Override
+        public void back() {
+            --mDepth;
+        }
+
+        @Override
+        public boolean isWord() {
+            return mNodes[mDepth].terminal;
+        }
+
+        @Override
+        public int getDepth() {
+            return mDepth;
+        }
+
+        @Override
+        public int getMaxRemainingLength() {
+            return mNodes[mDepth].height;
+        }
+
+        @Override
+        public void reset() {
+            mDepth = 0;
+        }
+    }
+
+    /**
+     * Walks the base, added and removed cursors side by side. Each one follows for as long as it
+     * can advance; the others carry on without it.
+     */
+    private static final class Cursor implements WordCursor {
+        private final WordCursor mBase;
+        private final WordCursor mAdded;
+        private final WordCursor mRemoved;
+        private int mDepth = 0;
+
+        Cursor(State state) {
+            mBase = state.base.newCursor();
+            mAdded = new OverlayCursor(state.added);
+            mRemoved = new OverlayCursor(state.removed);
+        }
+
+        @Override
+        public boolean advance(String face) {
+            final boolean base = mBase.getDepth() == mDepth && mBase.advance(face);
+            final boolean added = mAdded.getDepth() == mDepth && mAdded.advance(face);
+            if (!base && !added) {
+                return false;
+            }
+            if (mRemoved.getDepth() == mDepth) {
+                mRemoved.advance(face);
+            }
+            ++mDepth;
+            return true;
+        }
+
+        @Override
+        public void back() {
+            if (mBase.getDepth() == mDepth) {
+                mBase.back();
+            }
+            if (mAdded.getDepth() == mDepth) {
+                mAdded.back();
+            }
+            if (mRemoved.getDepth() == mDepth) {
+                mRemoved.back();
+            }
+            --mDepth;
+        }
+
+        @Override
+        public boolean isWord() {
+            if (mAdded.getDepth() == mDepth && mAdded.isWord()) {
+                return true;
+            }
+            return mBase.getDepth() == mDepth && mBase.isWord()
+                    && !(mRemoved.getDepth() == mDepth && mRemoved.isWord());
+        }
+
+        @Override
+        public int getDepth() {
+            return mDepth;
+        }
+
+        @Override
+        public int getMaxRemainingLength() {
+            int length = 0;
+            if (mBase.getDepth() == mDepth) {
+                length = mBase.getMaxRemainingLength();
+            }
+            if (mAdded.getDepth() == mDepth) {
+                length = Math.max(length, mAdded.getMaxRemainingLength());
+            }
+            return length;
+        }
+
+        @Override
+        public void reset() {
+            mBase.reset();
+            mAdded.reset();
+            mRemoved.reset();
+            mDepth = 0;
+        }
+    }
+}
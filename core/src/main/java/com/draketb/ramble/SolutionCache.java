@@ -0,0 +1,278 @@
+package com.draketb.ramble;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LRU cache of solutions in front of {@link Solver}, bounded by an estimate of its heap use.
+ *
+ * Rotating, mirroring or transposing a grid keeps every cell's neighbors, so all eight orientations
+ * of a board share one entry, keyed by whichever orientation reads first. Paths are stored in that
+ * orientation and mapped back to the caller's on the way out. Hex boards lose that symmetry and are
+ * keyed as dealt. Masked cells read as blank faces, since neither can be stepped on.
+ */
+public class SolutionCache {
+    private static final int MAGIC = 0x524d5343; // "RMSC"
+    private static final int VERSION = 1;
+    private static final int NUM_SYMMETRIES = 8;
+
+    private static final class Entry {
+        final String[] words;
+        final int[][] paths;
+        final long bytes;
+
+        Entry(String key, String[] words, int[][] paths) {
+            this.words = words;
+            this.paths = paths;
+            long bytes = 64 + 2 * key.length();
+            for (int i = 0; i < words.length; ++i) {
+                bytes += 64 + 2 * words[i].length() + 4 * paths[i].length;
+            }
+            this.bytes = bytes;
+        }
+    }
+
+    /** A board seen through one of the eight symmetries, see {@link #orient}. */
+    private static final class Orientation {
+        final String key;
+        // Cell of the original board at each cell of this orientation
+        final int[] toOriginal;
+
+        Orientation(String key, int[] toOriginal) {
+            this.key = key;
+            this.toOriginal = toOriginal;
+        }
+    }
+
+    private final WordList mWordList;
+    private final String mDictionaryId;
+    private final long mMaxBytes;
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mBytes = 0;
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+
+    /**
+     * dictionaryId names the contents of wordList; saved caches only load into a cache with the
+     * same id, since a different dictionary means different solutions.
+     */
+    public SolutionCache(WordList wordList, String dictionaryId, long maxBytes) {
+        mWordList = wordList;
+        mDictionaryId = dictionaryId;
+        mMaxBytes = maxBytes;
+    }
+
+    /** Returns the words of board with their paths, solving and caching it on a miss. */
+    public List<Solver.FoundWord> solve(Board board) {
+        final List<Solver.FoundWord> cached = get(board);
+        if (cached != null) {
+            return cached;
+        }
+
+        final List<Solver.FoundWord> words = new ArrayList<>();
+        new Solver(board, mWordList).solve(new Solver.OnWordFoundListener() {
+            @Override
+            public void onWordFound(Solver.FoundWord word) {
+                words.add(word);
+            }
+        }, CancellationToken.NONE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        put(board, words);
+        return words;
+    }
+
+    /** Returns the cached words of board or any of its symmetries, or null. */
+    public List<Solver.FoundWord> get(Board board) {
+        final Orientation canonical = canonicalize(board);
+        final Entry entry;
+        synchronized (this) {
+            entry = mEntries.get(canonical.key);
+            if (entry == null) {
+                ++mMissCount;
+                return null;
+            }
+            ++mHitCount;
+        }
+
+        final List<Solver.FoundWord> words = new ArrayList<>(entry.words.length);
+        for (int i = 0; i < entry.words.length; ++i) {
+            final int[] path = new int[entry.paths[i].length];
+            for (int j = 0; j < path.length; ++j) {
+                path[j] = canonical.toOriginal[entry.paths[i][j]];
+            }
+            words.add(new Solver.FoundWord(entry.words[i], path));
+        }
+        return words;
+    }
+
+    /** Caches the complete solution of board, with paths as seen on board. */
+    public void put(Board board, List<Solver.FoundWord> words) {
+        final Orientation canonical = canonicalize(board);
+        final int[] toCanonical = new int[canonical.toOriginal.length];
+        for (int cell = 0; cell < toCanonical.length; ++cell) {
+            toCanonical[canonical.toOriginal[cell]] = cell;
+        }
+
+        final String[] cachedWords = new String[words.size()];
+        final int[][] paths = new int[words.size()][];
+        for (int i = 0; i < cachedWords.length; ++i) {
+            cachedWords[i] = words.get(i).getWord();
+            paths[i] = words.get(i).getPath();
+            for (int j = 0; j < paths[i].length; ++j) {
+                paths[i][j] = toCanonical[paths[i][j]];
+            }
+        }
+        put(canonical.key, new Entry(canonical.key, cachedWords, paths));
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        final Entry previous = mEntries.put(key, entry);
+        if (previous != null) {
+            mBytes -= previous.bytes;
+        }
+        mBytes += entry.bytes;
+
+        final Iterator<Entry> eldest = mEntries.values().iterator();
+        while (mBytes > mMaxBytes && eldest.hasNext()) {
+            mBytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    public synchronized long getSizeInBytes() {
+        return mBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    public synchronized double getHitRate() {
+        final long lookups = mHitCount + mMissCount;
+        return lookups == 0 ? 0 : (double) mHitCount / lookups;
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+        mBytes = 0;
+    }
+
+    /** Writes the entries, least recently used first, so a load keeps their order. */
+    public synchronized void save(OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeUTF(mDictionaryId);
+        data.writeInt(mEntries.size());
+        for (Map.Entry<String, Entry> e : mEntries.entrySet()) {
+            final Entry entry = e.getValue();
+            data.writeUTF(e.getKey());
+            data.writeInt(entry.words.length);
+            for (int i = 0; i < entry.words.length; ++i) {
+                data.writeUTF(entry.words[i]);
+                data.writeShort(entry.paths[i].length);
+                for (int cell : entry.paths[i]) {
+                    data.writeShort(cell);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Adds the entries saved by {@link #save}. Returns false, adding nothing, if they were saved
+     * for another dictionary or by another version.
+     */
+    public boolean load(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION || !mDictionaryId.equals(data.readUTF())) {
+            return false;
+        }
+
+        final int numEntries = data.readInt();
+        final List<String> keys = new ArrayList<>(numEntries);
+        final List<Entry> entries = new ArrayList<>(numEntries);
+        for (int e = 0; e < numEntries; ++e) {
+            final String key = data.readUTF();
+            final String[] words = new String[data.readInt()];
+            final int[][] paths = new int[words.length][];
+            for (int i = 0; i < words.length; ++i) {
+                words[i] = data.readUTF();
+                paths[i] = new int[data.readUnsignedShort()];
+                for (int j = 0; j < paths[i].length; ++j) {
+                    paths[i][j] = data.readUnsignedShort();
+                }
+            }
+            keys.add(key);
+            entries.add(new Entry(key, words, paths));
+        }
+
+        // Only touch the cache once the whole stream has read cleanly
+        for (int i = 0; i < keys.size(); ++i) {
+            put(keys.get(i), entries.get(i));
+        }
+        return true;
+    }
+
+    private static Orientation canonicalize(Board board) {
+        final int numSymmetries = board.getTopology().hasGridSymmetry() ? NUM_SYMMETRIES : 1;
+        Orientation best = null;
+        for (int symmetry = 0; symmetry < numSymmetries; ++symmetry) {
+            final Orientation orientation = orient(board, symmetry);
+            if (best == null || orientation.key.compareTo(best.key) < 0) {
+                best = orientation;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Symmetry bit 2 transposes the grid, then bits 0 and 1 mirror its rows and columns. Together
+     * they give the four rotations and four reflections.
+     */
+    private static Orientation orient(Board board, int symmetry) {
+        final boolean transpose = (symmetry & 4) != 0;
+        final int numRows = transpose ? board.getNumCols() : board.getNumRows();
+        final int numCols = transpose ? board.getNumRows() : board.getNumCols();
+        final int[] toOriginal = new int[numRows * numCols];
+        // Plain grids keep their old keys, so saved caches still match
+        final Topology.Kind kind = board.getTopology().getKind();
+        final StringBuilder key = new StringBuilder();
+        if (kind != Topology.Kind.GRID) {
+            key.append(kind.name().toLowerCase(Locale.US));
+        }
+        key.append(numRows).append('x').append(numCols);
+        for (int row = 0; row < numRows; ++row) {
+            for (int col = 0; col < numCols; ++col) {
+                int r = transpose ? col : row;
+                int c = transpose ? row : col;
+                if ((symmetry & 1) != 0) {
+                    r = board.getNumRows() - 1 - r;
+                }
+                if ((symmetry & 2) != 0) {
+                    c = board.getNumCols() - 1 - c;
+                }
+                toOriginal[row * numCols + col] = r * board.getNumCols() + c;
+                key.append(',').append(board.getDieFace(r, c));
+            }
+        }
+        return new Orientation(key.toString(), toOriginal);
+    }
+}
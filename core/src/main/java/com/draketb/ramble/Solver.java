@@ -0,0 +1,521 @@
+package com.draketb.ramble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by draketb on 5/5/16.
+ */
+public class Solver {
+    public interface OnWordFoundListener {
+        /** Called on the solving thread, once per distinct word, in the order of {@link #solve()}. */
+        void onWordFound(FoundWord word);
+    }
+
+    public static final class FoundWord {
+        private final String mWord;
+        private final int[] mPath;
+
+        FoundWord(String word, int[] path) {
+            mWord = word;
+            mPath = path;
+        }
+
+        public String getWord() {
+            return mWord;
+        }
+
+        /** Cells spelling the word, each as row * numCols + col. */
+        public int[] getPath() {
+            return mPath.clone();
+        }
+
+        public int getScore() {
+            return Solver.getScore(mWord);
+        }
+
+        @Override
+        public String toString() {
+            return mWord + Arrays.toString(mPath);
+        }
+    }
+
+    /** Limits on how much work a budgeted solve may do before it returns what it has. */
+    public static final class Budget {
+        public static final Budget NONE = new Budget(Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        public final long maxNodes;
+        public final long time;
+        public final TimeUnit unit;
+
+        /** maxNodes counts dictionary nodes stepped onto; Long.MAX_VALUE means no limit. */
+        public Budget(long maxNodes, long time, TimeUnit unit) {
+            this.maxNodes = maxNodes;
+            this.time = time;
+            this.unit = unit;
+        }
+    }
+
+    public static final class Result {
+        private final List<String> mWords;
+        private final long mNodesVisited;
+        private final boolean mComplete;
+
+        Result(List<String> words, long nodesVisited, boolean complete) {
+            mWords = words;
+            mNodesVisited = nodesVisited;
+            mComplete = complete;
+        }
+
+        public List<String> getWords() {
+            return mWords;
+        }
+
+        public long getNodesVisited() {
+            return mNodesVisited;
+        }
+
+        /** False if the budget ran out, in which case the words are the best found so far. */
+        public boolean isComplete() {
+            return mComplete;
+        }
+    }
+
+    private static final Comparator<String> BY_LENGTH = new Comparator<String>() {
+        @Override
+        public int compare(String lhs, String rhs) {
+            return lhs.length() - rhs.length();
+        }
+    };
+
+    private static final Comparator<String> BY_SCORE_DESCENDING = new Comparator<String>() {
+        @Override
+        public int compare(String lhs, String rhs) {
+            final int byScore = getScore(rhs) - getScore(lhs);
+            return byScore != 0 ? byScore : lhs.compareTo(rhs);
+        }
+    };
+
+    static final int MIN_WORD_LENGTH = 3;
+    private static final int TASKS_PER_PROCESSOR = 4;
+    // Steps between checks for cancellation and the deadline, a power of two
+    private static final int STOP_CHECK_INTERVAL = 256;
+    // How long a blocked queue put waits before checking whether to stop
+    private static final long QUEUE_POLL_MILLIS = 10;
+
+    private static final Metrics.LatencyHistogram SOLVE_TIME = Metrics.histogram("solver.solve");
+    private static final Metrics.Counter NODES_VISITED = Metrics.counter("solver.nodesVisited");
+
+    private final Board mBoard;
+    private final WordList mWordList;
+    private final List<String> mWordsFound = new ArrayList<>();
+    private boolean mSolved = false;
+
+    public Solver(Board board, WordList wordList) {
+        mBoard = board;
+        mWordList = wordList;
+    }
+
+    public static int getScore(String word) {
+        return word.length() - 2;
+    }
+
+    public List<String> solve() {
+        if (!mSolved) {
+            final long start = System.nanoTime();
+            final TokenBoard board = TokenBoard.of(mBoard);
+            final Search search = new Search(board, mWordList, null, null);
+            for (int cell = 0; cell < board.getNumCells(); ++cell) {
+                search.solveAt(cell);
+            }
+            record(search, start);
+            mWordsFound.addAll(search.mWordsFound);
+            mSolved = true;
+        }
+        return Collections.unmodifiableList(mWordsFound);
+    }
+
+    /**
+     * Solves, passing each word and the path that first spelled it to listener as soon as it is
+     * found. Stops early once cancellation is cancelled or timeBudget has passed. Returns true if
+     * the whole board was searched; only then are the words kept for {@link #solve()}.
+     */
+    public boolean solve(OnWordFoundListener listener, CancellationToken cancellation, long timeBudget, TimeUnit unit) {
+        final long start = System.nanoTime();
+        final Stop stop = new Stop(cancellation, timeBudget, unit);
+        final TokenBoard board = TokenBoard.of(mBoard);
+        final Search search = new Search(board, mWordList, listener, stop);
+        for (int cell = 0; cell < board.getNumCells() && !search.isStopped(); ++cell) {
+            search.solveAt(cell);
+        }
+        record(search, start);
+        if (search.isStopped()) {
+            return false;
+        }
+        if (!mSolved) {
+            mWordsFound.addAll(search.mWordsFound);
+            mSolved = true;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the k highest-scoring words, best first, ties broken alphabetically among those found.
+     * Once k words are in hand, branches that can't spell a longer word than the k-th are skipped.
+     */
+    public Result solveTopK(int k, Budget budget) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        final Search search = newBudgetedSearch(budget);
+        search.mTopK = new PriorityQueue<>(k, BY_LENGTH);
+        search.mK = k;
+        runBudgetedSearch(search);
+
+        final List<String> words = new ArrayList<>(search.mTopK);
+        Collections.sort(words, BY_SCORE_DESCENDING);
+        return new Result(words, search.mNodesVisited, !search.isStopped());
+    }
+
+    /** Finds the words of at least minLength letters, in the order {@link #solve()} would. */
+    public Result solveMinLength(int minLength, Budget budget) {
+        final Search search = newBudgetedSearch(budget);
+        search.mMinLength = Math.max(minLength, MIN_WORD_LENGTH);
+        search.mTargetLength = search.mMinLength;
+        runBudgetedSearch(search);
+        return new Result(search.mWordsFound, search.mNodesVisited, !search.isStopped());
+    }
+
+    private Search newBudgetedSearch(Budget budget) {
+        final Search search = new Search(TokenBoard.of(mBoard), mWordList, null,
+                new Stop(CancellationToken.NONE, budget.time, budget.unit));
+        search.mMaxNodes = budget.maxNodes;
+        search.mPruning = true;
+        return search;
+    }
+
+    private static void runBudgetedSearch(Search search) {
+        final long start = System.nanoTime();
+        for (int cell = 0; cell < search.mBoard.getNumCells() && !search.isStopped(); ++cell) {
+            search.solveAt(cell);
+        }
+        record(search, start);
+    }
+
+    private static void record(Search search, long start) {
+        SOLVE_TIME.recordSince(start);
+        NODES_VISITED.add(search.mNodesVisited);
+    }
+
+    /**
+     * Like {@link #solve(OnWordFoundListener, CancellationToken, long, TimeUnit)}, putting the words
+     * into queue. A full queue holds the search back until a consumer catches up, the token is
+     * cancelled or the time budget runs out.
+     */
+    public boolean solve(final BlockingQueue<? super FoundWord> queue, CancellationToken cancellation, long timeBudget, TimeUnit unit)
+            throws InterruptedException {
+        final long start = System.nanoTime();
+        final Stop stop = new Stop(cancellation, timeBudget, unit);
+        final boolean[] interrupted = new boolean[1];
+        final OnWordFoundListener listener = new OnWordFoundListener() {
+            @Override
+            public void onWordFound(FoundWord word) {
+                try {
+                    while (!queue.offer(word, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (stop.isReached()) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    interrupted[0] = true;
+                    stop.force();
+                }
+            }
+        };
+
+        final TokenBoard board = TokenBoard.of(mBoard);
+        final Search search = new Search(board, mWordList, listener, stop);
+        for (int cell = 0; cell < board.getNumCells() && !search.isStopped(); ++cell) {
+            search.solveAt(cell);
+        }
+        record(search, start);
+        if (interrupted[0]) {
+            throw new InterruptedException();
+        }
+        if (search.isStopped()) {
+            return false;
+        }
+        if (!mSolved) {
+            mWordsFound.addAll(search.mWordsFound);
+            mSolved = true;
+        }
+        return true;
+    }
+
+    /**
+     * Solves on executor. The search is split by starting cell and first step, and those units are
+     * dealt out in contiguous chunks, a few per processor. Returns the same words in the same order
+     * as {@link #solve()}.
+     */
+    public List<String> solve(ExecutorService executor) throws InterruptedException {
+        if (!mSolved) {
+            final long start = System.nanoTime();
+            // Each unit is a starting cell and a neighbor to step to, or -1 for the cell alone
+            final TokenBoard board = TokenBoard.of(mBoard);
+            final List<int[]> units = new ArrayList<>();
+            for (int cell = 0; cell < board.getNumCells(); ++cell) {
+                units.add(new int[] {cell, -1});
+                for (int i = board.neighborStart(cell); i < board.neighborStart(cell + 1); ++i) {
+                    units.add(new int[] {cell, board.neighbor(i)});
+                }
+            }
+
+            final int numChunks = Math.min(units.size(), TASKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+            final List<Callable<List<String>>> tasks = new ArrayList<>();
+            for (int i = 0; i < numChunks; ++i) {
+                tasks.add(newChunkTask(board, units.subList(i * units.size() / numChunks, (i + 1) * units.size() / numChunks)));
+            }
+
+            // Merging in task order reproduces the order of the sequential search
+            final Set<String> words = new LinkedHashSet<>();
+            try {
+                for (Future<List<String>> result : executor.invokeAll(tasks)) {
+                    words.addAll(result.get());
+                }
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+            SOLVE_TIME.recordSince(start);
+            mWordsFound.addAll(words);
+            mSolved = true;
+        }
+        return Collections.unmodifiableList(mWordsFound);
+    }
+
+    private Callable<List<String>> newChunkTask(final TokenBoard board, final List<int[]> units) {
+        return new Callable<List<String>>() {
+            @Override
+            public List<String> call() {
+                final Search search = new Search(board, mWordList, null, null);
+                for (int[] unit : units) {
+                    if (search.enter(unit[0])) {
+                        if (unit[1] >= 0) {
+                            search.solveAt(unit[1]);
+                        }
+                        search.leave(unit[0]);
+                    }
+                }
+                NODES_VISITED.add(search.mNodesVisited);
+                return search.mWordsFound;
+            }
+        };
+    }
+
+    /** When a streaming solve should give up: on cancellation, or once its deadline has passed. */
+    private static final class Stop {
+        private final CancellationToken mCancellation;
+        private final long mDeadline;
+        private final boolean mHasDeadline;
+        private volatile boolean mForced = false;
+
+        Stop(CancellationToken cancellation, long timeBudget, TimeUnit unit) {
+            mCancellation = cancellation;
+            mHasDeadline = timeBudget != Long.MAX_VALUE;
+            mDeadline = mHasDeadline ? System.nanoTime() + unit.toNanos(timeBudget) : 0;
+        }
+
+        void force() {
+            mForced = true;
+        }
+
+        boolean isReached() {
+            return mForced || mCancellation.isCancelled() || (mHasDeadline && System.nanoTime() - mDeadline >= 0);
+        }
+    }
+
+    /**
+     * State of one depth-first search, reused across every step so steps allocate nothing.
+     * Visited cells are a single long bitmask on boards of up to 64 cells.
+     */
+    private static final class Search {
+        private final TokenBoard mBoard;
+        private final WordCursor mCursor;
+        // Lower-cased letters of each token, appended to mWord without creating strings
+        private final char[][] mLetters;
+        private final StringBuilder mWord = new StringBuilder();
+        private final Set<String> mUniqueWords = new HashSet<>();
+        private final List<String> mWordsFound = new ArrayList<>();
+        private long mVisited;
+        private final long[] mVisitedLarge;
+        // Cells of the current path, only tracked when there is a listener to report them to
+        private final OnWordFoundListener mListener;
+        private final int[] mPath;
+        private int mPathLength = 0;
+        private final Stop mStop;
+        private int mSteps = 0;
+        private boolean mStopped = false;
+        private long mNodesVisited = 0;
+        private long mMaxNodes = Long.MAX_VALUE;
+        // Shortest word worth recording, and with pruning on, the length a branch must be able to reach
+        private int mMinLength = MIN_WORD_LENGTH;
+        private int mTargetLength = MIN_WORD_LENGTH;
+        private boolean mPruning = false;
+        private final int mNumLiveCells;
+        private final int mMaxFaceLength;
+        // Best k words so far, shortest at the head, in top-k mode
+        private PriorityQueue<String> mTopK = null;
+        private int mK;
+
+        Search(TokenBoard board, WordList wordList, OnWordFoundListener listener, Stop stop) {
+            mBoard = board;
+            mCursor = wordList.newCursor();
+            mListener = listener;
+            mPath = listener != null ? new int[board.getNumCells()] : null;
+            mStop = stop;
+            mLetters = new char[board.getNumTokens()][];
+            for (int token = 0; token < mLetters.length; ++token) {
+                mLetters[token] = board.getFace(token).toCharArray();
+                for (int i = 0; i < mLetters[token].length; ++i) {
+                    mLetters[token][i] = Character.toLowerCase(mLetters[token][i]);
+                }
+            }
+            mVisitedLarge = board.getNumCells() > 64 ? new long[(board.getNumCells() + 63) >>> 6] : null;
+
+            int numLiveCells = 0;
+            for (int cell = 0; cell < board.getNumCells(); ++cell) {
+                if (board.getToken(cell) != TokenBoard.BLANK) {
+                    ++numLiveCells;
+                }
+            }
+            mNumLiveCells = numLiveCells;
+            int maxFaceLength = 0;
+            for (char[] letters : mLetters) {
+                maxFaceLength = Math.max(maxFaceLength, letters.length);
+            }
+            mMaxFaceLength = maxFaceLength;
+        }
+
+        void solveAt(int cell) {
+            if (!enter(cell)) {
+                return;
+            }
+
+            final int end = mBoard.neighborStart(cell + 1);
+            for (int i = mBoard.neighborStart(cell); i < end; ++i) {
+                solveAt(mBoard.neighbor(i));
+            }
+
+            leave(cell);
+        }
+
+        /**
+         * Steps onto a cell, recording the word it completes. Returns false, changing nothing, if
+         * the cell is blank, already used, or starts no word.
+         */
+        boolean enter(int cell) {
+            // Once stopped every step fails, which unwinds the search
+            if (mStopped || mNodesVisited >= mMaxNodes
+                    || (mStop != null && (++mSteps & (STOP_CHECK_INTERVAL - 1)) == 0 && mStop.isReached())) {
+                mStopped = true;
+                return false;
+            }
+
+            final int token = mBoard.getToken(cell);
+            if (token == TokenBoard.BLANK || isVisited(cell) || !mCursor.advance(mBoard.getFace(token))) {
+                return false;
+            }
+            ++mNodesVisited;
+            if (mPruning && !canReachTarget(mWord.length() + mLetters[token].length)) {
+                mCursor.back();
+                return false;
+            }
+
+            mWord.append(mLetters[token]);
+            toggleVisited(cell);
+            if (mPath != null) {
+                mPath[mPathLength++] = cell;
+            }
+
+            if (mWord.length() >= mMinLength && mCursor.isWord()) {
+                final String word = mWord.toString();
+                if (mTopK != null) {
+                    if (mUniqueWords.add(word)) {
+                        offerTopK(word);
+                    }
+                } else if (mUniqueWords.add(word)) {
+                    mWordsFound.add(word);
+                    if (mListener != null) {
+                        mListener.onWordFound(new FoundWord(word, Arrays.copyOf(mPath, mPathLength)));
+                        // The listener may have waited on a full queue, so don't wait for the next check
+                        mStopped = mStop != null && mStop.isReached();
+                    }
+                }
+            }
+            return true;
+        }
+
+        boolean isStopped() {
+            return mStopped;
+        }
+
+        /**
+         * Whether a prefix of length letters, just advanced onto, can still grow into a word of
+         * mTargetLength. Bounded both by the dictionary and by the cells left on the board.
+         */
+        private boolean canReachTarget(int length) {
+            final int boardRemaining = (mNumLiveCells - mCursor.getDepth()) * mMaxFaceLength;
+            return length + Math.min(mCursor.getMaxRemainingLength(), boardRemaining) >= mTargetLength;
+        }
+
+        private void offerTopK(String word) {
+            if (mTopK.size() == mK) {
+                if (word.length() <= mTopK.peek().length()) {
+                    return;
+                }
+                mTopK.poll();
+            }
+            mTopK.add(word);
+            if (mTopK.size() == mK) {
+                // Only a strictly longer word can displace the k-th best
+                mTargetLength = Math.max(mMinLength, mTopK.peek().length() + 1);
+            }
+        }
+
+        void leave(int cell) {
+            if (mPath != null) {
+                --mPathLength;
+            }
+            toggleVisited(cell);
+            mWord.setLength(mWord.length() - mLetters[mBoard.getToken(cell)].length);
+            mCursor.back();
+        }
+
+        private boolean isVisited(int cell) {
+            if (mVisitedLarge == null) {
+                return (mVisited & (1L << cell)) != 0;
+            }
+            return (mVisitedLarge[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+        private void toggleVisited(int cell) {
+            if (mVisitedLarge == null) {
+                mVisited ^= 1L << cell;
+            } else {
+                mVisitedLarge[cell >>> 6] ^= 1L << cell;
+            }
+        }
+    }
+}
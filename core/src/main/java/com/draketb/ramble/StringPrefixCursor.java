@@ -0,0 +1,62 @@
+package com.draketb.ramble;
+
+import java.util.Arrays;
+
+/**
+ * WordCursor for word lists that can only answer string queries. Every advance builds the new
+ * prefix as a String and asks {@link WordList#containsWords}.
+ */
+class StringPrefixCursor implements WordCursor {
+    private final WordList mWordList;
+    private final StringBuilder mPrefix = new StringBuilder();
+    private int[] mLengths = new int[16];
+    private int mDepth = 0;
+
+    StringPrefixCursor(WordList wordList) {
+        mWordList = wordList;
+    }
+
+    @Override
+    public boolean advance(String face) {
+        final int length = mPrefix.length();
+        for (int i = 0; i < face.length(); ++i) {
+            mPrefix.append(Character.toLowerCase(face.charAt(i)));
+        }
+        if (!mWordList.containsWords(mPrefix.toString())) {
+            mPrefix.setLength(length);
+            return false;
+        }
+
+        if (mDepth == mLengths.length) {
+            mLengths = Arrays.copyOf(mLengths, mDepth * 2);
+        }
+        mLengths[mDepth++] = length;
+        return true;
+    }
+
+    @Override
+    public void back() {
+        mPrefix.setLength(mLengths[--mDepth]);
+    }
+
+    @Override
+    public boolean isWord() {
+        return mWordList.containsWord(mPrefix.toString());
+    }
+
+    @Override
+    public int getDepth() {
+        return mDepth;
+    }
+
+    @Override
+    public int getMaxRemainingLength() {
+        return UNBOUNDED;
+    }
+
+    @Override
+    public void reset() {
+        mPrefix.setLength(0);
+        mDepth = 0;
+    }
+}
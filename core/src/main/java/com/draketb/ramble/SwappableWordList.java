@@ -0,0 +1,162 @@
+package com.draketb.ramble;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * WordList that answers from an immutable snapshot published through an atomic reference.
+ * Readers never block: until the first load completes they see an empty word list, and a reload
+ * builds its replacement in the background before swapping it in.
+ *
+ * Cursors stay on the snapshot that was current when they were created.
+ */
+public class SwappableWordList implements WordList {
+    public interface OnReadyListener {
+        /** Called on the thread that published wordList. */
+        void onWordListReady(WordList wordList);
+    }
+
+    private static final class Snapshot {
+        final long generation;
+        final WordList wordList;
+
+        Snapshot(long generation, WordList wordList) {
+            this.generation = generation;
+            this.wordList = wordList;
+        }
+    }
+
+    // One lookup in LOOKUP_SAMPLE_INTERVAL per thread is counted and timed, so lookups from
+    // parallel solves never meet on a shared counter
+    private static final int LOOKUP_SAMPLE_INTERVAL = 64;
+    private static final Metrics.Counter LOOKUPS = Metrics.counter("dictionary.lookups");
+    private static final Metrics.LatencyHistogram LOOKUP_TIME = Metrics.histogram("dictionary.lookup");
+    private static final ThreadLocal<int[]> sLookupsUntilSample = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    private static final Snapshot EMPTY = new Snapshot(0, new TrieWordList.Builder().build());
+
+    private final Executor mExecutor;
+    private final AtomicReference<Snapshot> mSnapshot = new AtomicReference<>(EMPTY);
+    private final AtomicLong mGeneration = new AtomicLong();
+    // Guarded by itself, which also orders publishing against adding listeners
+    private final List<OnReadyListener> mListeners = new ArrayList<>();
+
+    public SwappableWordList(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Runs loader on the executor and swaps its result in. If a later load has already been
+     * published by the time this one finishes, the older result is dropped.
+     */
+    public Future<WordList> load(final Callable<? extends WordList> loader) {
+        final long generation = mGeneration.incrementAndGet();
+        final FutureTask<WordList> task = new FutureTask<>(new Callable<WordList>() {
+            @Override
+            public WordList call() throws Exception {
+                final WordList wordList = loader.call();
+                publish(generation, wordList);
+                return wordList;
+            }
+        });
+        mExecutor.execute(task);
+        return task;
+    }
+
+    public void swap(WordList wordList) {
+        publish(mGeneration.incrementAndGet(), wordList);
+    }
+
+    public boolean isReady() {
+        return mSnapshot.get() != EMPTY;
+    }
+
+    public WordList getSnapshot() {
+        return mSnapshot.get().wordList;
+    }
+
+    /** Adds listener, calling it right away if a word list has already been published. */
+    public void addOnReadyListener(OnReadyListener listener) {
+        final Snapshot snapshot;
+        synchronized (mListeners) {
+            mListeners.add(listener);
+            snapshot = mSnapshot.get();
+        }
+        if (snapshot != EMPTY) {
+            listener.onWordListReady(snapshot.wordList);
+        }
+    }
+
+    public void removeOnReadyListener(OnReadyListener listener) {
+        synchronized (mListeners) {
+            mListeners.remove(listener);
+        }
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        final WordList wordList = mSnapshot.get().wordList;
+        if (!isSampled()) {
+            return wordList.containsWord(word);
+        }
+        final long start = System.nanoTime();
+        final boolean found = wordList.containsWord(word);
+        LOOKUP_TIME.recordSince(start);
+        return found;
+    }
+
+    @Override
+    public boolean containsWords(String prefix) {
+        final WordList wordList = mSnapshot.get().wordList;
+        if (!isSampled()) {
+            return wordList.containsWords(prefix);
+        }
+        final long start = System.nanoTime();
+        final boolean found = wordList.containsWords(prefix);
+        LOOKUP_TIME.recordSince(start);
+        return found;
+    }
+
+    @Override
+    public WordCursor newCursor() {
+        return mSnapshot.get().wordList.newCursor();
+    }
+
+    /** Whether to time this lookup; the lookups counter is bumped once per sample. */
+    private static boolean isSampled() {
+        final int[] untilSample = sLookupsUntilSample.get();
+        if (--untilSample[0] > 0) {
+            return false;
+        }
+        untilSample[0] = LOOKUP_SAMPLE_INTERVAL;
+        LOOKUPS.add(LOOKUP_SAMPLE_INTERVAL);
+        return true;
+    }
+
+    private void publish(long generation, WordList wordList) {
+        // Only listeners added before the swap hear about it here; later ones see it when added
+        final List<OnReadyListener> listeners;
+        synchronized (mListeners) {
+            if (mSnapshot.get().generation > generation) {
+                return;
+            }
+            mSnapshot.set(new Snapshot(generation, wordList));
+            listeners = new ArrayList<>(mListeners);
+        }
+
+        for (OnReadyListener listener : listeners) {
+            listener.onWordListReady(wordList);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.draketb.ramble;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Created by draketb on 4/29/16.
+ */
+public class SynchronizedTreeSetWordList implements WordList {
+    private static final Metrics.LatencyHistogram LOAD_TIME = Metrics.histogram("treeSet.load");
+    private static final Metrics.Gauge WORD_COUNT = Metrics.gauge("treeSet.words");
+
+    // Replaced wholesale by load() and never modified after publication, so reads need no lock
+    private volatile TreeSet<String> _words = new TreeSet<>();
+
+    public void load(InputStream in) throws IOException {
+        final long start = System.nanoTime();
+        final TreeSet<String> words = new TreeSet<>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.forName("UTF-8")));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            words.add(line.toLowerCase());
+        }
+        reader.close();
+        _words = words;
+        LOAD_TIME.recordSince(start);
+        WORD_COUNT.set(words.size());
+    }
+
+    /** The words as last loaded, in order. */
+    public Set<String> getWords() {
+        return Collections.unmodifiableSet(_words);
+    }
+
+    public boolean containsWord(String word) {
+        return _words.contains(word);
+    }
+
+    public boolean containsWords(String prefix) {
+        return !_words.subSet(prefix, prefix + '\uFFFF').isEmpty();
+    }
+
+    public WordCursor newCursor() {
+        return new StringPrefixCursor(this);
+    }
+}
@@ -0,0 +1,137 @@
+package com.draketb.ramble;
+
+import java.util.Arrays;
+
+/**
+ * Board prepared for searching. Each cell holds a small integer token indexing a table of
+ * distinct faces, and the neighbors of every cell are taken from its {@link Topology} in CSR form:
+ * the neighbors of cell c are mNeighbors[mNeighborStart[c]] up to mNeighbors[mNeighborStart[c + 1]].
+ * Cells are numbered row by row; blank cells get no token and appear in no neighbor list. Boards
+ * without blank cells share their topology's arrays instead of building their own.
+ */
+public final class TokenBoard implements Board {
+    static final int BLANK = -1;
+
+    private final Topology mTopology;
+    private final int mNumRows;
+    private final int mNumCols;
+    private final String[] mFaces;
+    private final int[] mTokens;
+    private final int[] mNeighborStart;
+    private final int[] mNeighbors;
+
+    public TokenBoard(int numRows, int numCols, String[] dieFaces) {
+        this(new FixedArrayBoard(numRows, numCols, dieFaces));
+    }
+
+    public TokenBoard(Topology topology, String[] dieFaces) {
+        this(new FixedArrayBoard(topology, dieFaces));
+    }
+
+    private TokenBoard(Board board) {
+        mTopology = board.getTopology();
+        mNumRows = board.getNumRows();
+        mNumCols = board.getNumCols();
+
+        final int numCells = mNumRows * mNumCols;
+        final String[] faces = new String[numCells];
+        int numFaces = 0;
+        int numBlanks = 0;
+        mTokens = new int[numCells];
+        for (int cell = 0; cell < numCells; ++cell) {
+            final String face = board.getDieFace(cell / mNumCols, cell % mNumCols);
+            if (face == null || face.isEmpty()) {
+                mTokens[cell] = BLANK;
+                ++numBlanks;
+                continue;
+            }
+
+            int token = 0;
+            while (token < numFaces && !faces[token].equals(face)) {
+                ++token;
+            }
+            if (token == numFaces) {
+                faces[numFaces++] = face;
+            }
+            mTokens[cell] = token;
+        }
+        mFaces = Arrays.copyOf(faces, numFaces);
+
+        if (numBlanks == 0) {
+            mNeighborStart = mTopology.mNeighborStart;
+            mNeighbors = mTopology.mNeighbors;
+            return;
+        }
+
+        mNeighborStart = new int[numCells + 1];
+        final int[] neighbors = new int[mTopology.neighborStart(numCells)];
+        int count = 0;
+        for (int cell = 0; cell < numCells; ++cell) {
+            mNeighborStart[cell] = count;
+            if (mTokens[cell] == BLANK) {
+                continue;
+            }
+            for (int i = mTopology.neighborStart(cell); i < mTopology.neighborStart(cell + 1); ++i) {
+                if (mTokens[mTopology.neighbor(i)] != BLANK) {
+                    neighbors[count++] = mTopology.neighbor(i);
+                }
+            }
+        }
+        mNeighborStart[numCells] = count;
+        mNeighbors = Arrays.copyOf(neighbors, count);
+    }
+
+    /** Returns board itself if it is already a TokenBoard. */
+    public static TokenBoard of(Board board) {
+        return board instanceof TokenBoard ? (TokenBoard) board : new TokenBoard(board);
+    }
+
+    @Override
+    public int getNumRows() {
+        return mNumRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return mNumCols;
+    }
+
+    @Override
+    public String getDieFace(int row, int col) {
+        if (row < 0 || row >= mNumRows || col < 0 || col >= mNumCols) {
+            return null;
+        }
+
+        final int token = mTokens[row * mNumCols + col];
+        return token == BLANK ? "" : mFaces[token];
+    }
+
+    @Override
+    public Topology getTopology() {
+        return mTopology;
+    }
+
+    public int getNumCells() {
+        return mTokens.length;
+    }
+
+    int getToken(int cell) {
+        return mTokens[cell];
+    }
+
+    int getNumTokens() {
+        return mFaces.length;
+    }
+
+    String getFace(int token) {
+        return mFaces[token];
+    }
+
+    int neighborStart(int cell) {
+        return mNeighborStart[cell];
+    }
+
+    int neighbor(int index) {
+        return mNeighbors[index];
+    }
+}
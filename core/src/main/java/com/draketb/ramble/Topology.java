@@ -0,0 +1,198 @@
+package com.draketb.ramble;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Which cells of a board are next to which, as a neighbor graph in CSR form: the neighbors of
+ * cell c are neighbor(neighborStart(c)) up to neighbor(neighborStart(c + 1)), in ascending order.
+ * Cells are numbered row by row. The graph is built once per shape and shared by every board of
+ * that shape, so searching a torus or a hex board costs the same as searching a plain grid.
+ */
+public final class Topology {
+    public enum Kind {
+        /** Eight neighbors, fewer at the edges. */
+        GRID,
+        /** Eight neighbors, wrapping around from each edge to the opposite one. */
+        TORUS,
+        /** Six neighbors, with odd rows set half a cell to the right of even ones. */
+        HEX
+    }
+
+    private static final ConcurrentMap<String, Topology> sShapes = new ConcurrentHashMap<>();
+
+    private final Kind mKind;
+    private final int mNumRows;
+    private final int mNumCols;
+    // Cells left out of the board, or null if there are none
+    private final boolean[] mMasked;
+    // Package-private so that boards without blank cells can search these arrays directly
+    final int[] mNeighborStart;
+    final int[] mNeighbors;
+
+    private Topology(Kind kind, int numRows, int numCols, boolean[] masked) {
+        mKind = kind;
+        mNumRows = numRows;
+        mNumCols = numCols;
+        mMasked = masked;
+
+        final int numCells = numRows * numCols;
+        mNeighborStart = new int[numCells + 1];
+        final int[] neighbors = new int[8 * numCells];
+        final int[] cellNeighbors = new int[9];
+        int count = 0;
+        for (int cell = 0; cell < numCells; ++cell) {
+            mNeighborStart[cell] = count;
+            if (isMasked(cell)) {
+                continue;
+            }
+
+            final int numNeighbors = findNeighbors(cell, cellNeighbors);
+            Arrays.sort(cellNeighbors, 0, numNeighbors);
+            for (int i = 0; i < numNeighbors; ++i) {
+                // A torus two cells across reaches the same neighbor both ways round
+                final int neighbor = cellNeighbors[i];
+                if (neighbor != cell && !isMasked(neighbor) && (i == 0 || neighbor != cellNeighbors[i - 1])) {
+                    neighbors[count++] = neighbor;
+                }
+            }
+        }
+        mNeighborStart[numCells] = count;
+        mNeighbors = Arrays.copyOf(neighbors, count);
+    }
+
+    public static Topology grid(int numRows, int numCols) {
+        return shape(Kind.GRID, numRows, numCols);
+    }
+
+    public static Topology torus(int numRows, int numCols) {
+        return shape(Kind.TORUS, numRows, numCols);
+    }
+
+    public static Topology hex(int numRows, int numCols) {
+        return shape(Kind.HEX, numRows, numCols);
+    }
+
+    private static Topology shape(Kind kind, int numRows, int numCols) {
+        if (numRows < 0 || numCols < 0) {
+            throw new IllegalArgumentException("Negative board size: " + numRows + "x" + numCols);
+        }
+        final String key = kind + ":" + numRows + "x" + numCols;
+        Topology topology = sShapes.get(key);
+        if (topology == null) {
+            sShapes.putIfAbsent(key, new Topology(kind, numRows, numCols, null));
+            topology = sShapes.get(key);
+        }
+        return topology;
+    }
+
+    /**
+     * This shape less the cells whose entry in masked is true, which then have no neighbors and
+     * are no one's neighbor. Masked shapes are not shared, so callers should keep the result.
+     */
+    public Topology mask(boolean[] masked) {
+        if (masked.length != getNumCells()) {
+            throw new IllegalArgumentException("Mask has " + masked.length + " cells, board has " + getNumCells());
+        }
+        final boolean[] combined = masked.clone();
+        for (int cell = 0; cell < combined.length; ++cell) {
+            combined[cell] |= isMasked(cell);
+        }
+        return new Topology(mKind, mNumRows, mNumCols, combined);
+    }
+
+    public Kind getKind() {
+        return mKind;
+    }
+
+    public int getNumRows() {
+        return mNumRows;
+    }
+
+    public int getNumCols() {
+        return mNumCols;
+    }
+
+    public int getNumCells() {
+        return mNumRows * mNumCols;
+    }
+
+    public boolean isMasked(int cell) {
+        return mMasked != null && mMasked[cell];
+    }
+
+    /**
+     * Whether transposing and mirroring keep every cell's neighbors, as they do for grids and tori
+     * but not for hex boards.
+     */
+    public boolean hasGridSymmetry() {
+        return mKind != Kind.HEX;
+    }
+
+    public int neighborStart(int cell) {
+        return mNeighborStart[cell];
+    }
+
+    public int neighbor(int index) {
+        return mNeighbors[index];
+    }
+
+    public boolean areAdjacent(int cell1, int cell2) {
+        final int end = mNeighborStart[cell1 + 1];
+        for (int i = mNeighborStart[cell1]; i < end; ++i) {
+            if (mNeighbors[i] == cell2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills neighbors with the cells next to cell, possibly repeated or including cell itself, and
+     * returns how many.
+     */
+    private int findNeighbors(int cell, int[] neighbors) {
+        final int row = cell / mNumCols;
+        final int col = cell % mNumCols;
+        int count = 0;
+        switch (mKind) {
+            case GRID:
+                for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, mNumRows - 1); ++i) {
+                    for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, mNumCols - 1); ++j) {
+                        neighbors[count++] = i * mNumCols + j;
+                    }
+                }
+                // The cell itself is dropped along with the duplicates
+                break;
+            case TORUS:
+                for (int i = row - 1; i <= row + 1; ++i) {
+                    for (int j = col - 1; j <= col + 1; ++j) {
+                        if (i != row || j != col) {
+                            neighbors[count++] = wrap(i, mNumRows) * mNumCols + wrap(j, mNumCols);
+                        }
+                    }
+                }
+                break;
+            case HEX:
+                // Rows above and below touch this column and the one on the side the row is offset
+                final int side = (row & 1) == 0 ? col - 1 : col + 1;
+                for (int i = row - 1; i <= row + 1; ++i) {
+                    if (i < 0 || i >= mNumRows) {
+                        continue;
+                    }
+                    for (int j : i == row ? new int[] {col - 1, col + 1} : new int[] {col, side}) {
+                        if (j >= 0 && j < mNumCols) {
+                            neighbors[count++] = i * mNumCols + j;
+                        }
+                    }
+                }
+                break;
+        }
+        return count;
+    }
+
+    private static int wrap(int index, int size) {
+        return (index + size) % size;
+    }
+}
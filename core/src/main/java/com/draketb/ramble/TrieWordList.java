@@ -0,0 +1,171 @@
+package com.draketb.ramble;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Immutable trie held on the heap in primitive arrays.
+ */
+public final class TrieWordList extends AbstractTrieWordList {
+    // Children of node n are the nodes in [mFirstChild[n], mFirstChild[n + 1])
+    private final int[] mFirstChild;
+    // Label of the edge leading into node n
+    private final char[] mLabels;
+    private final long[] mTerminal;
+    private final int mWordCount;
+
+    private TrieWordList(int[] firstChild, char[] labels, long[] terminal, int wordCount) {
+        mFirstChild = firstChild;
+        mLabels = labels;
+        mTerminal = terminal;
+        mWordCount = wordCount;
+    }
+
+    public static TrieWordList load(InputStream in) throws IOException {
+        final Builder builder = new Builder();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.forName("UTF-8")));
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                builder.add(line.toLowerCase());
+            }
+        } finally {
+            reader.close();
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int getNodeCount() {
+        return mLabels.length;
+    }
+
+    @Override
+    public int getWordCount() {
+        return mWordCount;
+    }
+
+    @Override
+    int firstChild(int node) {
+        return mFirstChild[node];
+    }
+
+    @Override
+    char label(int node) {
+        return mLabels[node];
+    }
+
+    @Override
+    boolean isTerminal(int node) {
+        return (mTerminal[node >>> 6] & (1L << node)) != 0;
+    }
+
+    /**
+     * Collects words into a linked first-child/next-sibling trie, then lays it out breadth-first.
+     * Words may be added in any order; duplicates are ignored.
+     */
+    public static final class Builder {
+        private char[] mLabels = new char[1024];
+        private int[] mFirstChild = new int[1024];
+        private int[] mNextSibling = new int[1024];
+        private long[] mTerminal = new long[1024 / 64];
+        private int mNodeCount = 1;
+        private int mWordCount = 0;
+
+        public Builder() {
+            mFirstChild[ROOT] = NO_NODE;
+            mNextSibling[ROOT] = NO_NODE;
+        }
+
+        public Builder add(CharSequence word) {
+            int node = ROOT;
+            for (int i = 0; i < word.length(); ++i) {
+                node = getOrAddChild(node, word.charAt(i));
+            }
+            setTerminal(node);
+            return this;
+        }
+
+        public Builder add(char[] chars, int offset, int length) {
+            int node = ROOT;
+            for (int i = offset; i < offset + length; ++i) {
+                node = getOrAddChild(node, chars[i]);
+            }
+            setTerminal(node);
+            return this;
+        }
+
+        public TrieWordList build() {
+            final int[] order = new int[mNodeCount];
+            final int[] firstChild = new int[mNodeCount + 1];
+            final char[] labels = new char[mNodeCount];
+            final long[] terminal = new long[(mNodeCount + 63) >>> 6];
+
+            int tail = 1;
+            order[0] = ROOT;
+            for (int head = 0; head < mNodeCount; ++head) {
+                final int old = order[head];
+                if ((mTerminal[old >>> 6] & (1L << old)) != 0) {
+                    terminal[head >>> 6] |= 1L << head;
+                }
+                firstChild[head] = tail;
+                for (int c = mFirstChild[old]; c != NO_NODE; c = mNextSibling[c]) {
+                    order[tail] = c;
+                    labels[tail] = mLabels[c];
+                    ++tail;
+                }
+            }
+            firstChild[mNodeCount] = tail;
+
+            return new TrieWordList(firstChild, labels, terminal, mWordCount);
+        }
+
+        private int getOrAddChild(int node, char c) {
+            // Siblings are kept sorted by label so build() never has to sort
+            int prev = NO_NODE;
+            int child = mFirstChild[node];
+            while (child != NO_NODE && mLabels[child] < c) {
+                prev = child;
+                child = mNextSibling[child];
+            }
+            if (child != NO_NODE && mLabels[child] == c) {
+                return child;
+            }
+
+            final int added = newNode(c);
+            mNextSibling[added] = child;
+            if (prev == NO_NODE) {
+                mFirstChild[node] = added;
+            } else {
+                mNextSibling[prev] = added;
+            }
+            return added;
+        }
+
+        private int newNode(char label) {
+            if (mNodeCount == mLabels.length) {
+                final int capacity = mNodeCount * 2;
+                mLabels = Arrays.copyOf(mLabels, capacity);
+                mFirstChild = Arrays.copyOf(mFirstChild, capacity);
+                mNextSibling = Arrays.copyOf(mNextSibling, capacity);
+                mTerminal = Arrays.copyOf(mTerminal, capacity >>> 6);
+            }
+            final int node = mNodeCount++;
+            mLabels[node] = label;
+            mFirstChild[node] = NO_NODE;
+            mNextSibling[node] = NO_NODE;
+            return node;
+        }
+
+        private void setTerminal(int node) {
+            final long bit = 1L << node;
+            if ((mTerminal[node >>> 6] & bit) == 0) {
+                mTerminal[node >>> 6] |= bit;
+                ++mWordCount;
+            }
+        }
+    }
+}
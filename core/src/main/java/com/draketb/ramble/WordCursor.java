@@ -0,0 +1,32 @@
+package com.draketb.ramble;
+
+/**
+ * Walks a {@link WordList} one die face at a time, so a search can extend and shorten its
+ * prefix without building strings. Faces may hold more than one letter, such as "Qu".
+ */
+public interface WordCursor {
+    /** Returned by {@link #getMaxRemainingLength()} when the word list keeps no lengths. */
+    int UNBOUNDED = Integer.MAX_VALUE;
+
+    /**
+     * Appends face to the current prefix. Returns false, leaving the cursor unchanged, if no
+     * word starts with the result.
+     */
+    boolean advance(String face);
+
+    /** Removes the face added by the most recent successful {@link #advance}. */
+    void back();
+
+    boolean isWord();
+
+    /** Number of faces in the current prefix. */
+    int getDepth();
+
+    /**
+     * Most letters any word starting with the current prefix has after it, so a search can drop
+     * branches that can't reach a length it wants. {@link #UNBOUNDED} if unknown.
+     */
+    int getMaxRemainingLength();
+
+    void reset();
+}
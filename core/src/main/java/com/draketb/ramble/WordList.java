@@ -6,4 +6,5 @@ package com.draketb.ramble;
 public interface WordList {
     boolean containsWord(String word);
     boolean containsWords(String prefix);
+    WordCursor newCursor();
 }
@@ -0,0 +1,50 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AnswerSetTest {
+    @Test
+    public void submitsEachWordOnce() {
+        final AnswerSet answers = new AnswerSet(Arrays.asList("ramble", "amble", "bam", "bam"));
+        assertEquals(3, answers.getWordCount());
+        assertEquals(4 + 3 + 1, answers.getTotalScore());
+
+        assertEquals(AnswerSet.Submission.NEW, answers.submit("amble"));
+        assertEquals(AnswerSet.Submission.DUPLICATE, answers.submit("amble"));
+        assertEquals(AnswerSet.Submission.NOT_ON_BOARD, answers.submit("ample"));
+        assertEquals(AnswerSet.Submission.NEW, answers.submit("bam"));
+        assertEquals(2, answers.getFoundCount());
+        assertEquals(3 + 1, answers.getFoundScore());
+    }
+
+    @Test
+    public void emptyBoard() {
+        final AnswerSet answers = new AnswerSet(Collections.<String>emptyList());
+        assertEquals(0, answers.getWordCount());
+        assertFalse(answers.contains("cat"));
+        assertEquals(AnswerSet.Submission.NOT_ON_BOARD, answers.submit("cat"));
+    }
+
+    @Test
+    public void holdsEverySolvedWord() throws IOException {
+        final TrieWordList trie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+        final List<String> words = new Solver(SolverTest.randomBoard(new Random(18), 10, 10), trie).solve();
+        final AnswerSet answers = new AnswerSet(words);
+        assertEquals(words.size(), answers.getWordCount());
+        for (String word : words) {
+            assertTrue(word, answers.contains(word));
+            assertFalse(word, answers.contains(word + "zz"));
+        }
+    }
+}
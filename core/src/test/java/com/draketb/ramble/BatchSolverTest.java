@@ -0,0 +1,74 @@
+package com.draketb.ramble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchSolverTest {
+    private static TrieWordList sTrie;
+
+    @BeforeClass
+    public static void loadDictionary() throws IOException {
+        sTrie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+    }
+
+    private static List<String> sortedSolve(Board board, WordList wordList) {
+        final List<String> words = new ArrayList<>(new Solver(board, wordList).solve());
+        Collections.sort(words);
+        return words;
+    }
+
+    @Test
+    public void matchesSolverOnMixedBatch() {
+        final Random random = new Random(19);
+        final List<Board> boards = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            final int rows = 1 + random.nextInt(8);
+            boards.add(SolverTest.randomBoard(random, rows, 1 + random.nextInt(8)));
+        }
+        // Too big for one visited mask, solved on its own
+        boards.add(SolverTest.randomBoard(random, 9, 9));
+
+        final BatchSolver solver = new BatchSolver(sTrie);
+        final List<List<String>> words = solver.solve(boards);
+        assertEquals(boards.size(), words.size());
+        for (int i = 0; i < boards.size(); ++i) {
+            assertEquals(sortedSolve(boards.get(i), sTrie), words.get(i));
+        }
+
+        // Reusable, also with other letters and on other word list storage
+        final LoudsWordList louds = new LoudsWordList(sTrie);
+        final List<Board> more = boards.subList(0, 50);
+        final List<List<String>> again = new BatchSolver(louds).solve(more);
+        assertEquals(words.subList(0, 50), again);
+        assertEquals(words.subList(0, 50), solver.solve(more));
+    }
+
+    @Test
+    public void multiLetterFacesAndBlanks() {
+        final Board board = new FixedArrayBoard(2, 3, new String[] {
+                "Qu", "I", "",
+                "T", "E", "S",
+        });
+        final List<List<String>> words = new BatchSolver(sTrie).solve(Arrays.asList(board, board));
+        assertEquals(sortedSolve(board, sTrie), words.get(0));
+        assertEquals(words.get(0), words.get(1));
+        assertTrue(words.get(0).contains("quite"));
+        assertTrue(words.get(0).contains("quiet"));
+    }
+
+    @Test
+    public void emptyBatch() {
+        assertEquals(0, new BatchSolver(sTrie).solve(new ArrayList<Board>()).size());
+    }
+}
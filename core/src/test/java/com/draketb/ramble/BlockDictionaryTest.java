@@ -0,0 +1,95 @@
+package com.draketb.ramble;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlockDictionaryTest {
+    private static ExecutorService sExecutor;
+
+    @BeforeClass
+    public static void startExecutor() {
+        sExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void stopExecutor() {
+        sExecutor.shutdownNow();
+    }
+
+    @Test
+    public void roundTripsTheDictionary() throws IOException {
+        final List<String> words = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new FileReader(TestDictionary.PATH));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            words.add(line.toLowerCase());
+        }
+        reader.close();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlockDictionary.write(words, out);
+        final TrieWordList loaded = BlockDictionary.load(new ByteArrayInputStream(out.toByteArray()), sExecutor);
+
+        assertEquals(words.size(), loaded.getWordCount());
+        for (String word : words) {
+            assertTrue(word, loaded.containsWord(word));
+            assertFalse(word, loaded.containsWord(word + "qx"));
+        }
+    }
+
+    @Test
+    public void sortsAndDropsDuplicates() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlockDictionary.write(Arrays.asList("cart", "car", "cat", "car", "ca"), out);
+        final TrieWordList loaded = BlockDictionary.load(new ByteArrayInputStream(out.toByteArray()), sExecutor);
+        assertEquals(4, loaded.getWordCount());
+        assertTrue(loaded.containsWord("ca"));
+        assertTrue(loaded.containsWord("cart"));
+        assertFalse(loaded.containsWord("c"));
+    }
+
+    @Test
+    public void roundTripsWordsOutsideLatin1() throws IOException {
+        // Polish, Czech, Russian and Turkish, a CJK word and one longer than 255 characters
+        final StringBuilder longWord = new StringBuilder();
+        for (int i = 0; i < 300; ++i) {
+            longWord.append((char) ('\u0430' + i % 32));
+        }
+        final List<String> words = Arrays.asList("\u017ad\u017ab\u0142o", "\u017ad\u017ab\u0142a", "\u017elu\u0165ou\u010dk\u00fd", "\u0441\u044a\u0435\u0448\u044c", "\u0441\u044a\u0435\u0448\u044c\u0442\u0435", "\u0131\u011fd\u0131r",
+                "\u015fi\u015fe", "\u6587\u5b57", longWord.toString());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlockDictionary.write(words, out);
+        final TrieWordList loaded = BlockDictionary.load(new ByteArrayInputStream(out.toByteArray()), sExecutor);
+        assertEquals(words.size(), loaded.getWordCount());
+        for (String word : words) {
+            assertTrue(word, loaded.containsWord(word));
+        }
+        assertFalse(loaded.containsWord("\u017ad\u017ab\u0142"));
+        assertTrue(loaded.containsWords("\u0441\u044a\u0435"));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsCorruptBlocks() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlockDictionary.write(Arrays.asList("aardvark", "aardwolf", "abaca"), out);
+        final byte[] bytes = out.toByteArray();
+        bytes[bytes.length - 3] ^= 0x55;
+        BlockDictionary.load(new ByteArrayInputStream(bytes), sExecutor);
+    }
+}
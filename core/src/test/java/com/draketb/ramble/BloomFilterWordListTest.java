@@ -0,0 +1,95 @@
+package com.draketb.ramble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterWordListTest {
+    private static List<String> sWords;
+    private static SynchronizedTreeSetWordList sTreeSet;
+    private static BloomFilterWordList sFiltered;
+
+    @BeforeClass
+    public static void loadDictionary() throws IOException {
+        sWords = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new FileReader(TestDictionary.PATH));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            sWords.add(line.toLowerCase());
+        }
+        reader.close();
+        sTreeSet = new SynchronizedTreeSetWordList();
+        sTreeSet.load(new FileInputStream(TestDictionary.PATH));
+        sFiltered = new BloomFilterWordList(sTreeSet, 8, 10);
+    }
+
+    @Test
+    public void neverRejectsAWordOrPrefix() {
+        for (String word : sWords) {
+            assertTrue(word, sFiltered.containsWord(word));
+            for (int i = 1; i <= word.length(); ++i) {
+                assertTrue(word, sFiltered.containsWords(word.substring(0, i)));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsMostMissesWithoutTheWrappedList() {
+        final BloomFilterWordList filtered = new BloomFilterWordList(sTreeSet, sWords, 8, 10);
+        final Random random = new Random(20);
+        int misses = 0;
+        for (int i = 0; i < 100000; ++i) {
+            final char[] chars = new char[1 + random.nextInt(10)];
+            for (int j = 0; j < chars.length; ++j) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            final String s = new String(chars);
+            assertEquals(s, sTreeSet.containsWords(s), filtered.containsWords(s));
+            assertEquals(s, sTreeSet.containsWord(s), filtered.containsWord(s));
+            misses += (sTreeSet.containsWords(s) ? 0 : 1) + (sTreeSet.containsWord(s) ? 0 : 1);
+        }
+
+        assertEquals(200000, filtered.getQueryCount());
+        assertEquals(misses, filtered.getRejectCount() + filtered.getFalsePositiveCount());
+        assertTrue(filtered.getFalsePositiveRate() < 0.03);
+        assertTrue(filtered.getHitRate() > 0.8);
+    }
+
+    @Test
+    public void solvesLikeTheWrappedList() {
+        final Random random = new Random(21);
+        for (int i = 0; i < 20; ++i) {
+            final Board board = SolverTest.randomBoard(random, 5, 5);
+            assertEquals(new Solver(board, sTreeSet).solve(), new Solver(board, sFiltered).solve());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesWordsTheWrappedListLacks() {
+        final List<String> upperCase = new ArrayList<>();
+        for (String word : sWords.subList(0, 100)) {
+            upperCase.add(word.toUpperCase());
+        }
+        new BloomFilterWordList(sTreeSet, upperCase, 8, 10);
+    }
+
+    @Test
+    public void emptyWordList() {
+        final BloomFilterWordList filtered = new BloomFilterWordList(
+                new TrieWordList.Builder().build(), Arrays.<String>asList(), 8, 10);
+        assertFalse(filtered.containsWord("a"));
+        assertFalse(filtered.containsWords("a"));
+        assertFalse(filtered.containsWords(""));
+    }
+}
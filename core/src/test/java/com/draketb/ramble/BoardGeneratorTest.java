@@ -0,0 +1,53 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoardGeneratorTest {
+    private static final Die[] DICE = new Die[] {
+            new Die("AAAAAA"), new Die("BBBBBB"), new Die("CCCCCC"), new Die("DDDDDD"),
+            new Die("EEEEEE"), new Die("FFFFFF"), new Die("GGGGGG"), new Die("HHHHHH"),
+            new Die(new String[] {"Qu", "Qu", "Qu", "Qu", "Qu", "Qu"}),
+    };
+
+    @Test
+    public void sameSeedSameBoards() {
+        final BoardGenerator first = new BoardGenerator(DICE, 3, 3, 20160505L);
+        final BoardGenerator second = new BoardGenerator(DICE, 3, 3, 20160505L);
+        for (int i = 0; i < 100; ++i) {
+            assertArrayEquals(first.nextBoard(0), second.nextBoard(0));
+        }
+
+        second.setSeed(BoardGenerator.dailySeed(17000));
+        first.setSeed(BoardGenerator.dailySeed(17001));
+        assertFalse(Arrays.equals(first.nextBoard(0), second.nextBoard(0)));
+    }
+
+    @Test
+    public void everyDieUsedOncePerPass() {
+        final BoardGenerator generator = new BoardGenerator(DICE, 3, 3, 1L);
+        final String[] board = generator.nextBoard(0);
+        Arrays.sort(board);
+        assertEquals("[A, B, C, D, E, F, G, H, Qu]", Arrays.toString(board));
+    }
+
+    @Test
+    public void vowelMinimumAppliesToReturnedBoard() {
+        // Three dice of mixed faces on a 1x3 board: every board needs all three vowels
+        final Die[] dice = new Die[] {new Die("AB"), new Die("EF"), new Die("IJ")};
+        final BoardGenerator generator = new BoardGenerator(dice, 1, 3, 3L);
+        final String[] board = new String[3];
+        for (int i = 0; i < 100; ++i) {
+            generator.nextBoard(3, board);
+            for (String face : board) {
+                assertTrue(Arrays.toString(board), BoardGenerator.isVowel(face));
+            }
+        }
+    }
+}
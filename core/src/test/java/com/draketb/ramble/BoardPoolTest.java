@@ -0,0 +1,73 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoardPoolTest {
+    @Test
+    public void keepsOnlyBoardsMeetingCriteria() throws IOException, InterruptedException {
+        final TrieWordList trie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+        final BoardPool.Criteria criteria = new BoardPool.Criteria(3, 60, 100, 6, 3);
+        final BoardPool pool = new BoardPool(new BoardGenerator(Dice.classic(), 4, 4, 9L), trie, criteria, 4);
+        assertNull(pool.poll());
+
+        pool.start();
+        while (pool.getQueueDepth() < 4) {
+            Thread.sleep(1);
+        }
+        pool.stop();
+
+        assertTrue(pool.getRejectedCount() < pool.getGeneratedCount());
+        assertEquals((double) pool.getRejectedCount() / pool.getGeneratedCount(), pool.getRejectionRate(), 1e-9);
+        assertEquals(4, Metrics.gauge("boardPool.queueDepth").get());
+        assertEquals(pool.getRejectedCount() * 1000 / pool.getGeneratedCount(),
+                Metrics.gauge("boardPool.rejectionPerMille").get());
+        for (int i = 0; i < 4; ++i) {
+            final BoardPool.PooledBoard board = pool.poll();
+            assertTrue(board.getWords().size() >= criteria.minWordCount);
+            assertTrue(board.getMaxScore() >= criteria.minMaxScore);
+            assertTrue(board.getLongWordCount() >= criteria.minLongWordCount);
+            assertEquals(board.getWords(), new Solver(new FixedArrayBoard(4, 4, board.getFaces()), trie).solve());
+        }
+        assertEquals(0, Metrics.gauge("boardPool.queueDepth").get());
+    }
+
+    @Test
+    public void restartDoesNotShareGenerator() throws IOException, InterruptedException {
+        final TrieWordList trie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+        final AtomicInteger inUse = new AtomicInteger();
+        final AtomicBoolean shared = new AtomicBoolean();
+        final BoardGenerator generator = new BoardGenerator(Dice.classic(), 4, 4, 9L) {
+            @Override
+            public void nextBoard(int minVowelCount, String[] faces) {
+                if (inUse.incrementAndGet() > 1) {
+                    shared.set(true);
+                }
+                super.nextBoard(minVowelCount, faces);
+                Thread.yield();
+                inUse.decrementAndGet();
+            }
+        };
+        final BoardPool pool = new BoardPool(generator, trie, new BoardPool.Criteria(0, 0, 0, 0, 0), 1000);
+        for (int i = 0; i < 200; ++i) {
+            pool.start();
+            Thread.sleep(0, 100000);
+            pool.stop();
+        }
+        pool.start();
+        while (pool.getGeneratedCount() < 300) {
+            Thread.sleep(1);
+        }
+        pool.stop();
+        assertFalse(shared.get());
+    }
+}
@@ -0,0 +1,108 @@
+package com.draketb.ramble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DawgWordListTest {
+    private static List<String> sWords;
+    private static TrieWordList sTrie;
+    private static DawgWordList sDawg;
+
+    @BeforeClass
+    public static void loadDictionaries() throws IOException {
+        sWords = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new FileReader(TestDictionary.PATH));
+        final TrieWordList.Builder builder = new TrieWordList.Builder();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            sWords.add(line.toLowerCase());
+            builder.add(line.toLowerCase());
+        }
+        reader.close();
+        sTrie = builder.build();
+        sDawg = DawgWordList.minimize(sTrie);
+    }
+
+    @Test
+    public void matchesTrieForEveryWordAndPrefix() {
+        assertEquals(sTrie.getWordCount(), sDawg.getWordCount());
+        assertTrue(sDawg.getStateCount() < sTrie.getNodeCount() / 4);
+
+        for (String word : sWords) {
+            for (int i = 0; i <= word.length(); ++i) {
+                final String prefix = word.substring(0, i);
+                assertEquals(prefix, sTrie.containsWord(prefix), sDawg.containsWord(prefix));
+                assertEquals(prefix, sTrie.containsWords(prefix), sDawg.containsWords(prefix));
+            }
+            for (char c = 'a'; c <= 'z'; ++c) {
+                final String extended = word + c;
+                assertEquals(extended, sTrie.containsWord(extended), sDawg.containsWord(extended));
+                assertEquals(extended, sTrie.containsWords(extended), sDawg.containsWords(extended));
+            }
+        }
+    }
+
+    @Test
+    public void imageRoundTrips() throws IOException {
+        final ByteArrayOutputStream image = new ByteArrayOutputStream();
+        sDawg.write(image);
+        assertEquals(sDawg.getSizeInBytes(), image.size());
+
+        final DawgWordList read = DawgWordList.read(ByteBuffer.wrap(image.toByteArray()));
+        assertEquals(sDawg.getStateCount(), read.getStateCount());
+        assertEquals(sDawg.getEdgeCount(), read.getEdgeCount());
+        for (String word : sWords) {
+            assertTrue(word, read.containsWord(word));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readRejectsTrieImage() throws IOException {
+        final ByteArrayOutputStream image = new ByteArrayOutputStream();
+        MappedTrieWordList.write(sTrie, image);
+        DawgWordList.read(ByteBuffer.wrap(image.toByteArray()));
+    }
+
+    @Test
+    public void sharedEndingsKeepTheirOwnLengths() {
+        // "ing" is shared by both stems, but only one of them goes on to "ingly"
+        final DawgWordList dawg = DawgWordList.minimize(new TrieWordList.Builder()
+                .add("seeing").add("seeingly").add("going").add("doing")
+                .build());
+        assertEquals(4, dawg.getWordCount());
+        assertTrue(dawg.containsWord("doing"));
+        assertFalse(dawg.containsWord("doingly"));
+
+        final WordCursor cursor = dawg.newCursor();
+        assertEquals(8, cursor.getMaxRemainingLength());
+        assertTrue(cursor.advance("D"));
+        assertEquals(4, cursor.getMaxRemainingLength());
+        cursor.reset();
+        assertTrue(cursor.advance("s"));
+        assertEquals(7, cursor.getMaxRemainingLength());
+        assertTrue(cursor.advance("eeing"));
+        assertTrue(cursor.isWord());
+        assertEquals(2, cursor.getMaxRemainingLength());
+        assertFalse(cursor.advance("x"));
+    }
+
+    @Test
+    public void solvesLikeTrie() {
+        for (Board board : new Board[] {
+                new FixedArrayBoard(4, 4, new String[] {"S", "T", "N", "G", "E", "I", "A", "E", "D", "R", "T", "L", "S", "E", "P", "I"}),
+                new FixedArrayBoard(3, 3, new String[] {"Qu", "I", "T", "E", "A", "S", "R", "N", "D"})}) {
+            assertEquals(new Solver(board, sTrie).solve(), new Solver(board, sDawg).solve());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.draketb.ramble;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DictionarySnapshotTest {
+    private final DawgWordList mDawg = DawgWordList.minimize(new TrieWordList.Builder()
+            .add("cat").add("car").add("cart").add("dog")
+            .build());
+    private File mFile;
+
+    @Before
+    public void createFile() throws IOException {
+        mFile = File.createTempFile("dictionary", ".snapshot");
+    }
+
+    @After
+    public void deleteFile() {
+        mFile.delete();
+    }
+
+    @Test
+    public void loadsWhatWasWritten() throws IOException {
+        DictionarySnapshot.write(mDawg, 42, mFile);
+        final DawgWordList snapshot = DictionarySnapshot.load(mFile, 42);
+        assertEquals(mDawg.getStateCount(), snapshot.getStateCount());
+        assertEquals(4, snapshot.getWordCount());
+        assertTrue(snapshot.containsWord("cart"));
+        assertFalse(snapshot.containsWord("ca"));
+        assertTrue(snapshot.containsWords("do"));
+        assertFalse(new File(mFile.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void otherSourceVersionIsIgnored() throws IOException {
+        DictionarySnapshot.write(mDawg, 42, mFile);
+        assertNull(DictionarySnapshot.load(mFile, 43));
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptionFailsChecksum() throws IOException {
+        DictionarySnapshot.write(mDawg, 42, mFile);
+        final RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            file.seek(file.length() - 1);
+            final int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 1);
+        } finally {
+            file.close();
+        }
+        DictionarySnapshot.load(mFile, 42);
+    }
+}
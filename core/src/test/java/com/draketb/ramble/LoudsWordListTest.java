@@ -0,0 +1,77 @@
+package com.draketb.ramble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoudsWordListTest {
+    private static TrieWordList sTrie;
+    private static LoudsWordList sLouds;
+
+    @BeforeClass
+    public static void loadDictionaries() throws IOException {
+        sTrie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+        sLouds = new LoudsWordList(sTrie);
+    }
+
+    @Test
+    public void sameShapeAsTrie() {
+        assertEquals(sTrie.getNodeCount(), sLouds.getNodeCount());
+        assertEquals(sTrie.getWordCount(), sLouds.getWordCount());
+        for (int node = 0; node <= sTrie.getNodeCount(); ++node) {
+            assertEquals(sTrie.firstChild(node), sLouds.firstChild(node));
+        }
+        for (int node = 1; node < sTrie.getNodeCount(); ++node) {
+            assertEquals(sTrie.label(node), sLouds.label(node));
+            assertEquals(sTrie.isTerminal(node), sLouds.isTerminal(node));
+        }
+    }
+
+    @Test
+    public void rankAndSelectMatchBitString() {
+        int ones = 0;
+        int zeros = 0;
+        for (int position = 0; position < sLouds.getNumBits(); ++position) {
+            assertEquals(ones, sLouds.rank1(position));
+            // The bit string is the child count of each node in unary
+            if (sLouds.rank1(position + 1) > ones) {
+                ++ones;
+            } else {
+                assertEquals(position, sLouds.select0(zeros));
+                ++zeros;
+            }
+        }
+        assertEquals(sLouds.getNodeCount(), zeros);
+        assertEquals(sLouds.getNodeCount() - 1, ones);
+    }
+
+    @Test
+    public void cursorWalksMultiLetterFaces() {
+        final WordCursor cursor = sLouds.newCursor();
+        assertTrue(cursor.advance("Qu"));
+        assertTrue(cursor.advance("I"));
+        assertTrue(cursor.advance("T"));
+        assertTrue(cursor.isWord());
+        assertFalse(cursor.advance("Qu"));
+        assertEquals(3, cursor.getDepth());
+        cursor.back();
+        assertFalse(cursor.isWord());
+    }
+
+    @Test
+    public void smallTries() {
+        final LoudsWordList empty = new LoudsWordList(new TrieWordList.Builder().build());
+        assertFalse(empty.containsWords(""));
+        assertFalse(empty.containsWord("a"));
+
+        final LoudsWordList single = new LoudsWordList(new TrieWordList.Builder().add("a").build());
+        assertTrue(single.containsWord("a"));
+        assertFalse(single.containsWords("b"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+    @Test
+    public void lookupsReturnTheSameMetric() {
+        assertSame(Metrics.counter("test.same"), Metrics.counter("test.same"));
+        assertSame(Metrics.gauge("test.same"), Metrics.gauge("test.same"));
+        assertSame(Metrics.histogram("test.same"), Metrics.histogram("test.same"));
+    }
+
+    @Test
+    public void histogramPercentilesAreBucketBounds() {
+        final Metrics.LatencyHistogram histogram = Metrics.histogram("test.percentiles");
+        for (int i = 1; i <= 100; ++i) {
+            histogram.record(i < 90 ? 100 : 5000);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(89 * 100 + 11 * 5000, histogram.getSum());
+        assertEquals(5000, histogram.getMax());
+        // 100 is in [64, 128) and 5000 in [4096, 8192), capped at the max
+        assertEquals(127, histogram.percentile(0.5));
+        assertEquals(5000, histogram.percentile(0.9));
+        assertEquals(5000, histogram.percentile(0.99));
+        assertEquals(0, Metrics.histogram("test.empty").percentile(0.5));
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        final Metrics.Counter counter = Metrics.counter("test.concurrent");
+        final Metrics.LatencyHistogram histogram = Metrics.histogram("test.concurrent");
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; ++t) {
+            final int offset = t;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; ++i) {
+                        counter.increment();
+                        histogram.record(i + offset);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, counter.get());
+        assertEquals(40000, histogram.getCount());
+        assertEquals(10002, histogram.getMax());
+    }
+
+    @Test
+    public void snapshotIncludesEveryKind() {
+        Metrics.counter("test.json").add(3);
+        Metrics.gauge("test.json").set(-7);
+        Metrics.histogram("test.json").record(2);
+        final String json = Metrics.toJson();
+        assertTrue(json, json.startsWith("{\"counters\":{"));
+        assertTrue(json, json.contains("\"test.json\":3"));
+        assertTrue(json, json.contains("\"test.json\":-7"));
+        assertTrue(json, json.contains("\"test.json\":{\"count\":1,\"sumNanos\":2,\"maxNanos\":2,"
+                + "\"p50Nanos\":2,\"p90Nanos\":2,\"p99Nanos\":2,\"buckets\":[0,0,1]}"));
+        assertTrue(Metrics.toLines().contains("test.json = 3"));
+    }
+
+    @Test
+    public void quoteEscapesForJson() {
+        assertEquals("\"Pixel \\\"5\\\" \\\\ \\u000a\"", Metrics.quote("Pixel \"5\" \\ \n"));
+    }
+}
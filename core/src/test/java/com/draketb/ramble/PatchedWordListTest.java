@@ -0,0 +1,216 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PatchedWordListTest {
+    private static final List<String> SOURCE = Arrays.asList("cat", "car", "cart", "dog", "dot");
+
+    /** Keeps its own copy of the words, like an app patching its dictionary on disk. */
+    private static class SetCompactor implements PatchedWordList.Compactor {
+        final Set<String> words = new TreeSet<>(SOURCE);
+        final List<Set<String>> patches = new ArrayList<>();
+
+        @Override
+        public WordList compact(WordList base, Set<String> added, Set<String> removed) throws Exception {
+            patches.add(new TreeSet<>(added));
+            patches.add(new TreeSet<>(removed));
+            words.removeAll(removed);
+            words.addAll(added);
+            return build(words);
+        }
+    }
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static TrieWordList build(Iterable<String> words) {
+        final TrieWordList.Builder builder = new TrieWordList.Builder();
+        for (String word : words) {
+            builder.add(word);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void patchesOverlayTheBase() {
+        final PatchedWordList wordList = new PatchedWordList(build(SOURCE), DIRECT, new SetCompactor(), 100);
+        wordList.apply(Arrays.asList("cow", "cowbell"), Arrays.asList("cart", "dog", "zebra"));
+
+        // zebra was never in the base, so there is nothing to hide
+        assertEquals(4, wordList.getOverlaySize());
+        assertTrue(wordList.containsWord("cow"));
+        assertTrue(wordList.containsWord("cowbell"));
+        assertTrue(wordList.containsWord("car"));
+        assertFalse(wordList.containsWord("cart"));
+        assertFalse(wordList.containsWord("dog"));
+        assertTrue(wordList.containsWords("cowb"));
+        assertTrue(wordList.containsWords("do"));
+
+        // Putting a removed word back leaves nothing to hide
+        wordList.apply(Collections.singletonList("dog"), Collections.<String>emptyList());
+        assertTrue(wordList.containsWord("dog"));
+        assertEquals(3, wordList.getOverlaySize());
+    }
+
+    @Test
+    public void cursorFollowsEveryLayer() {
+        final PatchedWordList wordList = new PatchedWordList(build(SOURCE), DIRECT, new SetCompactor(), 100);
+        wordList.apply(Arrays.asList("catalog", "dogs"), Collections.singletonList("cat"));
+
+        final WordCursor cursor = wordList.newCursor();
+        assertTrue(cursor.advance("c"));
+        assertTrue(cursor.advance("a"));
+        assertTrue(cursor.advance("t"));
+        assertFalse(cursor.isWord());
+        assertEquals(4, cursor.getMaxRemainingLength());
+        assertTrue(cursor.advance("a"));
+        assertEquals(4, cursor.getDepth());
+        cursor.back();
+        cursor.back();
+        assertTrue(cursor.advance("r"));
+        assertTrue(cursor.isWord());
+        assertTrue(cursor.advance("t"));
+        assertTrue(cursor.isWord());
+        assertFalse(cursor.advance("s"));
+
+        cursor.reset();
+        assertTrue(cursor.advance("d"));
+        assertTrue(cursor.advance("o"));
+        assertTrue(cursor.advance("g"));
+        assertTrue(cursor.isWord());
+        assertTrue(cursor.advance("s"));
+        assertTrue(cursor.isWord());
+    }
+
+    @Test
+    public void solverSeesPatches() {
+        final Board board = new FixedArrayBoard(2, 2, new String[] {"C", "A", "R", "T"});
+        final PatchedWordList wordList = new PatchedWordList(build(SOURCE), DIRECT, new SetCompactor(), 100);
+        wordList.apply(Collections.singletonList("tarc"), Collections.singletonList("cart"));
+        assertEquals(Arrays.asList("car", "cat", "tarc"), sorted(new Solver(board, wordList).solve()));
+    }
+
+    @Test
+    public void compactionFoldsOverlayIntoBase() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final PatchedWordList wordList = new PatchedWordList(build(SOURCE), executor, new SetCompactor(), 2);
+        final WordList original = wordList.getBase();
+        wordList.apply(Collections.singletonList("cow"), Collections.singletonList("dot"));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, wordList.getOverlaySize());
+        assertTrue(wordList.getBase() != original);
+        assertTrue(wordList.getBase().containsWord("cow"));
+        assertFalse(wordList.getBase().containsWord("dot"));
+        // The removed word's prefix is gone too, now that the base was rebuilt without it
+        assertFalse(wordList.containsWords("dot"));
+    }
+
+    @Test
+    public void patchesDuringCompactionSurviveIt() throws Exception {
+        final PatchedWordList[] wordList = new PatchedWordList[1];
+        final PatchedWordList.Compactor racing = new SetCompactor() {
+            @Override
+            public WordList compact(WordList base, Set<String> added, Set<String> removed) throws Exception {
+                final WordList newBase = super.compact(base, added, removed);
+                // Lands after the patches were copied for compaction but before the new base
+                wordList[0].apply(Collections.singletonList("dig"), Collections.singletonList("cow"));
+                return newBase;
+            }
+        };
+        wordList[0] = new PatchedWordList(build(SOURCE), DIRECT, racing, 100);
+        wordList[0].apply(Collections.singletonList("cow"), Collections.<String>emptyList());
+
+        final WordList base = wordList[0].compact().get();
+        assertTrue(base.containsWord("cow"));
+        assertFalse(base.containsWord("dig"));
+        assertFalse(wordList[0].containsWord("cow"));
+        assertTrue(wordList[0].containsWord("dig"));
+        assertEquals(2, wordList[0].getOverlaySize());
+    }
+
+    @Test
+    public void compactionOnlyReplaysPatchesSinceTheLast() throws Exception {
+        final SetCompactor compactor = new SetCompactor();
+        final PatchedWordList wordList = new PatchedWordList(build(SOURCE), DIRECT, compactor, 100);
+        wordList.apply(Collections.singletonList("cow"), Collections.singletonList("dot"));
+        final WordList first = wordList.compact().get();
+        wordList.apply(Collections.singletonList("dig"), Collections.singletonList("cat"));
+        final WordList second = wordList.compact().get();
+
+        assertEquals(Arrays.asList(
+                set("cow"), set("dot"),
+                set("dig"), set("cat")), compactor.patches);
+        assertTrue(second != first);
+        assertEquals(0, wordList.getOverlaySize());
+        assertTrue(wordList.containsWord("cow"));
+        assertTrue(wordList.containsWord("dig"));
+        assertFalse(wordList.containsWord("dot"));
+        assertFalse(wordList.containsWord("cat"));
+    }
+
+    @Test
+    public void failedCompactionKeepsItsPatches() throws Exception {
+        final SetCompactor compactor = new SetCompactor();
+        final boolean[] failing = {true};
+        final PatchedWordList wordList = new PatchedWordList(build(SOURCE), DIRECT, new PatchedWordList.Compactor() {
+            @Override
+            public WordList compact(WordList base, Set<String> added, Set<String> removed) throws Exception {
+                if (failing[0]) {
+                    throw new IOException("Disk full");
+                }
+                return compactor.compact(base, added, removed);
+            }
+        }, 100);
+        wordList.apply(Arrays.asList("cow", "dig"), Collections.singletonList("dot"));
+        try {
+            wordList.compact().get();
+            fail("Compaction should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(3, wordList.getOverlaySize());
+        assertTrue(wordList.containsWord("cow"));
+
+        failing[0] = false;
+        wordList.apply(Collections.<String>emptyList(), Collections.singletonList("dig"));
+        wordList.compact().get();
+        assertEquals(Arrays.asList(set("cow"), set("dig", "dot")), compactor.patches);
+        assertEquals(0, wordList.getOverlaySize());
+        assertTrue(wordList.containsWord("cow"));
+        assertFalse(wordList.containsWord("dig"));
+    }
+
+    private static Set<String> set(String... words) {
+        return new TreeSet<>(Arrays.asList(words));
+    }
+
+    private static List<String> sorted(List<String> words) {
+        final String[] array = words.toArray(new String[0]);
+        Arrays.sort(array);
+        return Arrays.asList(array);
+    }
+}
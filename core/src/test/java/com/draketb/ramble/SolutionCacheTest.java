@@ -0,0 +1,140 @@
+package com.draketb.ramble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SolutionCacheTest {
+    private static TrieWordList sTrie;
+
+    @BeforeClass
+    public static void loadDictionary() throws IOException {
+        sTrie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+    }
+
+    private static Board rotate(Board board) {
+        final String[] faces = new String[board.getNumRows() * board.getNumCols()];
+        for (int row = 0; row < board.getNumCols(); ++row) {
+            for (int col = 0; col < board.getNumRows(); ++col) {
+                faces[row * board.getNumRows() + col] = board.getDieFace(board.getNumRows() - 1 - col, row);
+            }
+        }
+        return new FixedArrayBoard(board.getNumCols(), board.getNumRows(), faces);
+    }
+
+    private static Board mirror(Board board) {
+        final String[] faces = new String[board.getNumRows() * board.getNumCols()];
+        for (int row = 0; row < board.getNumRows(); ++row) {
+            for (int col = 0; col < board.getNumCols(); ++col) {
+                faces[row * board.getNumCols() + col] = board.getDieFace(row, board.getNumCols() - 1 - col);
+            }
+        }
+        return new FixedArrayBoard(board.getTopology(), faces);
+    }
+
+    private static void assertSolves(Board board, List<Solver.FoundWord> found) {
+        final Set<String> words = new HashSet<>();
+        for (Solver.FoundWord word : found) {
+            final StringBuilder spelled = new StringBuilder();
+            for (int cell : word.getPath()) {
+                spelled.append(board.getDieFace(cell / board.getNumCols(), cell % board.getNumCols()).toLowerCase());
+            }
+            assertEquals(word.getWord(), spelled.toString());
+            words.add(word.getWord());
+        }
+        assertEquals(new HashSet<>(new Solver(board, sTrie).solve()), words);
+    }
+
+    @Test
+    public void symmetricBoardsShareAnEntry() {
+        final SolutionCache cache = new SolutionCache(sTrie, "enable1", 1 << 20);
+        Board board = SolverTest.randomBoard(new Random(14), 4, 5);
+        assertSolves(board, cache.solve(board));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        for (int i = 0; i < 4; ++i) {
+            board = rotate(board);
+            assertSolves(board, cache.solve(board));
+            assertSolves(mirror(board), cache.solve(mirror(board)));
+        }
+        assertEquals(1, cache.size());
+        assertEquals(8, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertNull(cache.get(SolverTest.randomBoard(new Random(15), 4, 5)));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void mirroredHexBoardsDoNotShareAnEntry() {
+        final SolutionCache cache = new SolutionCache(sTrie, "enable1", 1 << 20);
+        final Board grid = SolverTest.randomBoard(new Random(16), 4, 4);
+        final String[] faces = new String[16];
+        for (int cell = 0; cell < faces.length; ++cell) {
+            faces[cell] = grid.getDieFace(cell / 4, cell % 4);
+        }
+        final Board hex = new FixedArrayBoard(Topology.hex(4, 4), faces);
+        assertSolves(hex, cache.solve(hex));
+        assertSolves(mirror(hex), cache.solve(mirror(hex)));
+        assertSolves(grid, cache.solve(grid));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPastMemoryBound() {
+        final Random random = new Random(16);
+        final Board[] boards = new Board[3];
+        final long[] bytes = new long[3];
+        for (int i = 0; i < boards.length; ++i) {
+            boards[i] = SolverTest.randomBoard(random, 4, 4);
+            final SolutionCache probe = new SolutionCache(sTrie, "enable1", Long.MAX_VALUE);
+            probe.solve(boards[i]);
+            bytes[i] = probe.getSizeInBytes();
+        }
+
+        // Room for boards 0 and 1, or 0 and 2, but never all three
+        final SolutionCache cache = new SolutionCache(sTrie, "enable1", bytes[0] + Math.max(bytes[1], bytes[2]));
+        cache.solve(boards[0]);
+        cache.solve(boards[1]);
+        assertNotNull(cache.get(boards[0]));
+        cache.solve(boards[2]);
+        assertEquals(2, cache.size());
+        assertNull(cache.get(boards[1]));
+        assertNotNull(cache.get(boards[0]));
+        assertEquals(bytes[0] + bytes[2], cache.getSizeInBytes());
+    }
+
+    @Test
+    public void savesAndLoads() throws IOException {
+        final Board board = SolverTest.randomBoard(new Random(17), 5, 5);
+        final SolutionCache cache = new SolutionCache(sTrie, "enable1", 1 << 20);
+        cache.solve(board);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.save(out);
+
+        final SolutionCache loaded = new SolutionCache(sTrie, "enable1", 1 << 20);
+        assertTrue(loaded.load(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(cache.getSizeInBytes(), loaded.getSizeInBytes());
+        assertSolves(mirror(board), loaded.get(mirror(board)));
+
+        final SolutionCache otherDictionary = new SolutionCache(sTrie, "sowpods", 1 << 20);
+        assertFalse(otherDictionary.load(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(0, otherDictionary.size());
+    }
+}
@@ -0,0 +1,289 @@
+package com.draketb.ramble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SolverTest {
+    private static final String[] LETTERS = {
+            "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M",
+            "N", "O", "P", "Qu", "R", "S", "T", "U", "V", "W", "X", "Y", "Z",
+            "A", "E", "I", "O", "E", "S", "T", "R",
+    };
+
+    private static TrieWordList sTrie;
+
+    @BeforeClass
+    public static void loadDictionary() throws IOException {
+        sTrie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+    }
+
+    static FixedArrayBoard randomBoard(Random random, int rows, int cols) {
+        final String[] faces = new String[rows * cols];
+        for (int i = 0; i < faces.length; ++i) {
+            faces[i] = LETTERS[random.nextInt(LETTERS.length)];
+        }
+        return new FixedArrayBoard(rows, cols, faces);
+    }
+
+    @Test
+    public void findsWordsOnTitleBoard() {
+        final Board board = new FixedArrayBoard(4, 4, new String[] {
+                "E", "P", "W", "T",
+                "R", "A", "M", "Y",
+                "G", "B", "L", "E",
+                "V", "D", "R", "A",
+        });
+        final List<String> words = new Solver(board, sTrie).solve();
+        assertTrue(words.contains("ramble"));
+        assertTrue(words.contains("amble"));
+        // Needs three Rs
+        assertFalse(words.contains("rarer"));
+        // Too short
+        assertFalse(words.contains("am"));
+    }
+
+    @Test
+    public void multiLetterFaces() {
+        final Board board = new FixedArrayBoard(2, 2, new String[] {
+                "Qu", "I",
+                "T", "E",
+        });
+        final List<String> words = new Solver(board, sTrie).solve();
+        assertTrue(words.contains("quit"));
+        assertTrue(words.contains("quite"));
+        assertTrue(words.contains("quiet"));
+    }
+
+    @Test
+    public void matchesReferenceSearch() throws IOException {
+        final SynchronizedTreeSetWordList treeSet = new SynchronizedTreeSetWordList();
+        treeSet.load(new FileInputStream(TestDictionary.PATH));
+
+        final Random random = new Random(7);
+        for (int size = 1; size <= 9; ++size) {
+            // 9x8 boards have more than 64 cells and take the long[] visited path
+            final FixedArrayBoard board = randomBoard(random, size, size - 1);
+            final Set<String> expected = new HashSet<>();
+            final boolean[] visited = new boolean[board.getNumRows() * board.getNumCols()];
+            for (int i = 0; i < board.getNumRows(); ++i) {
+                for (int j = 0; j < board.getNumCols(); ++j) {
+                    referenceSearch(board, treeSet, i, j, "", visited, expected);
+                }
+            }
+
+            assertEquals(expected, new HashSet<>(new Solver(board, sTrie).solve()));
+            assertEquals(expected, new HashSet<>(new Solver(TokenBoard.of(board), sTrie).solve()));
+        }
+    }
+
+    private static void referenceSearch(Board board, WordList wordList, int row, int col, String prefix,
+            boolean[] visited, Set<String> words) {
+        final String face = board.getDieFace(row, col);
+        final int index = row * board.getNumCols() + col;
+        if (face == null || visited[index]) {
+            return;
+        }
+        final String word = prefix + face.toLowerCase();
+        if (!wordList.containsWords(word)) {
+            return;
+        }
+        if (word.length() >= 3 && wordList.containsWord(word)) {
+            words.add(word);
+        }
+
+        visited[index] = true;
+        for (int i = row - 1; i <= row + 1; ++i) {
+            for (int j = col - 1; j <= col + 1; ++j) {
+                referenceSearch(board, wordList, i, j, word, visited, words);
+            }
+        }
+        visited[index] = false;
+    }
+
+    @Test
+    public void parallelMatchesSequential() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Random random = new Random(6);
+        for (int size = 2; size <= 10; ++size) {
+            final Board board = randomBoard(random, size, size + 1);
+            assertEquals(new Solver(board, sTrie).solve(), new Solver(board, sTrie).solve(executor));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void streamsWordsWithPaths() {
+        final Random random = new Random(7);
+        for (int size = 2; size <= 8; ++size) {
+            final Board board = randomBoard(random, size, size);
+            final List<Solver.FoundWord> found = new ArrayList<>();
+            final Solver solver = new Solver(board, sTrie);
+            assertTrue(solver.solve(new Solver.OnWordFoundListener() {
+                @Override
+                public void onWordFound(Solver.FoundWord word) {
+                    found.add(word);
+                }
+            }, CancellationToken.NONE, Long.MAX_VALUE, TimeUnit.NANOSECONDS));
+
+            final List<String> words = new ArrayList<>();
+            for (Solver.FoundWord word : found) {
+                words.add(word.getWord());
+                assertPathSpells(board, word);
+            }
+            assertEquals(new Solver(board, sTrie).solve(), words);
+            assertEquals(words, solver.solve());
+        }
+    }
+
+    private static void assertPathSpells(Board board, Solver.FoundWord word) {
+        final int[] path = word.getPath();
+        final Set<Integer> cells = new HashSet<>();
+        final StringBuilder spelled = new StringBuilder();
+        for (int i = 0; i < path.length; ++i) {
+            final int row = path[i] / board.getNumCols();
+            final int col = path[i] % board.getNumCols();
+            assertTrue(cells.add(path[i]));
+            if (i > 0) {
+                assertTrue(Math.abs(row - path[i - 1] / board.getNumCols()) <= 1);
+                assertTrue(Math.abs(col - path[i - 1] % board.getNumCols()) <= 1);
+            }
+            spelled.append(board.getDieFace(row, col).toLowerCase());
+        }
+        assertEquals(word.getWord(), spelled.toString());
+    }
+
+    @Test
+    public void stopsWhenCancelledOrOutOfTime() {
+        final Board board = randomBoard(new Random(8), 10, 10);
+        final CancellationToken cancellation = new CancellationToken();
+        final Solver.OnWordFoundListener cancelOnFirstWord = new Solver.OnWordFoundListener() {
+            @Override
+            public void onWordFound(Solver.FoundWord word) {
+                cancellation.cancel();
+            }
+        };
+        final Solver solver = new Solver(board, sTrie);
+        assertFalse(solver.solve(cancelOnFirstWord, cancellation, Long.MAX_VALUE, TimeUnit.NANOSECONDS));
+        assertFalse(solver.solve(cancelOnFirstWord, new CancellationToken(), 0, TimeUnit.NANOSECONDS));
+
+        // A stopped search leaves nothing behind for solve()
+        assertEquals(new Solver(board, sTrie).solve(), solver.solve());
+    }
+
+    @Test
+    public void boundedQueueHoldsSearchBack() throws Exception {
+        final Board board = randomBoard(new Random(9), 6, 6);
+        final BlockingQueue<Solver.FoundWord> queue = new ArrayBlockingQueue<>(2);
+        final Solver solver = new Solver(board, sTrie);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<Boolean> complete = executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws InterruptedException {
+                return solver.solve(queue, CancellationToken.NONE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        });
+
+        final List<String> expected = new Solver(board, sTrie).solve();
+        final List<String> words = new ArrayList<>();
+        while (words.size() < expected.size()) {
+            assertTrue(queue.size() <= 2);
+            words.add(queue.take().getWord());
+        }
+        assertTrue(complete.get());
+        assertEquals(expected, words);
+        executor.shutdown();
+    }
+
+    @Test
+    public void cancellingUnblocksFullQueue() throws Exception {
+        final Board board = randomBoard(new Random(10), 6, 6);
+        final BlockingQueue<Solver.FoundWord> queue = new ArrayBlockingQueue<>(1);
+        final CancellationToken cancellation = new CancellationToken();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<Boolean> complete = executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws InterruptedException {
+                return new Solver(board, sTrie).solve(queue, cancellation, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        });
+
+        // Nobody consumes, so the search is stuck behind the first word until cancelled
+        queue.take();
+        cancellation.cancel();
+        assertFalse(complete.get(1, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void topKMatchesBestOfFullSolve() {
+        final Random random = new Random(11);
+        for (int size = 3; size <= 8; ++size) {
+            final Board board = randomBoard(random, size, size);
+            final List<String> all = new Solver(board, sTrie).solve();
+            final List<Integer> allScores = new ArrayList<>();
+            for (String word : all) {
+                allScores.add(Solver.getScore(word));
+            }
+            Collections.sort(allScores, Collections.reverseOrder());
+
+            for (int k : new int[] {1, 5, 20}) {
+                final Solver.Result result = new Solver(board, sTrie).solveTopK(k, Solver.Budget.NONE);
+                assertTrue(result.isComplete());
+                assertEquals(Math.min(k, all.size()), result.getWords().size());
+                for (int i = 0; i < result.getWords().size(); ++i) {
+                    final String word = result.getWords().get(i);
+                    assertTrue(word, all.contains(word));
+                    assertEquals(allScores.get(i), Integer.valueOf(Solver.getScore(word)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void minLengthKeepsSolveOrderAndPrunes() {
+        final Board board = randomBoard(new Random(12), 6, 6);
+        final List<String> expected = new ArrayList<>();
+        for (String word : new Solver(board, sTrie).solve()) {
+            if (word.length() >= 6) {
+                expected.add(word);
+            }
+        }
+
+        final Solver.Result all = new Solver(board, sTrie).solveMinLength(3, Solver.Budget.NONE);
+        final Solver.Result longWords = new Solver(board, sTrie).solveMinLength(6, Solver.Budget.NONE);
+        assertEquals(expected, longWords.getWords());
+        assertTrue(longWords.getNodesVisited() < all.getNodesVisited());
+        assertTrue(new Solver(board, sTrie).solveTopK(3, Solver.Budget.NONE).getNodesVisited() < all.getNodesVisited());
+    }
+
+    @Test
+    public void stopsAtNodeBudget() {
+        final Board board = randomBoard(new Random(13), 6, 6);
+        final Solver.Result result = new Solver(board, sTrie).solveTopK(10, new Solver.Budget(100, Long.MAX_VALUE, TimeUnit.NANOSECONDS));
+        assertFalse(result.isComplete());
+        assertEquals(100, result.getNodesVisited());
+
+        final Solver.Result timedOut = new Solver(board, sTrie).solveMinLength(3, new Solver.Budget(Long.MAX_VALUE, 0, TimeUnit.NANOSECONDS));
+        assertFalse(timedOut.isComplete());
+    }
+}
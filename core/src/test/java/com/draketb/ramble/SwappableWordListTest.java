@@ -0,0 +1,111 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SwappableWordListTest {
+    @Test
+    public void readersDoNotWaitForLoad() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+        final SwappableWordList wordList = new SwappableWordList(executor);
+        final List<WordList> published = new ArrayList<>();
+        wordList.addOnReadyListener(new SwappableWordList.OnReadyListener() {
+            @Override
+            public void onWordListReady(WordList ready) {
+                published.add(ready);
+            }
+        });
+
+        final Future<WordList> loaded = wordList.load(new Callable<WordList>() {
+            @Override
+            public WordList call() throws Exception {
+                release.await();
+                return new TrieWordList.Builder().add("cat").build();
+            }
+        });
+
+        // The loader is parked, yet lookups still answer right away
+        assertFalse(wordList.isReady());
+        assertFalse(wordList.containsWord("cat"));
+
+        release.countDown();
+        assertSame(loaded.get(), wordList.getSnapshot());
+        assertTrue(wordList.isReady());
+        assertTrue(wordList.containsWord("cat"));
+        assertSame(loaded.get(), published.get(0));
+        executor.shutdown();
+    }
+
+    @Test
+    public void staleLoadDoesNotReplaceNewerSnapshot() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+        final SwappableWordList wordList = new SwappableWordList(executor);
+
+        final Future<WordList> stale = wordList.load(new Callable<WordList>() {
+            @Override
+            public WordList call() throws Exception {
+                release.await();
+                return new TrieWordList.Builder().add("old").build();
+            }
+        });
+        final WordList fresh = new TrieWordList.Builder().add("new").build();
+        wordList.swap(fresh);
+
+        release.countDown();
+        stale.get();
+        assertSame(fresh, wordList.getSnapshot());
+        assertFalse(wordList.containsWord("old"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void listenerAddedDuringSwapHearsOnce() throws Exception {
+        final WordList ready = new TrieWordList.Builder().add("cat").build();
+        for (int round = 0; round < 2000; ++round) {
+            final SwappableWordList wordList = new SwappableWordList(null);
+            final AtomicInteger calls = new AtomicInteger();
+            final Thread swapper = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    wordList.swap(ready);
+                }
+            });
+            swapper.start();
+            wordList.addOnReadyListener(new SwappableWordList.OnReadyListener() {
+                @Override
+                public void onWordListReady(WordList wordList) {
+                    calls.incrementAndGet();
+                }
+            });
+            swapper.join();
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    public void lookupsAreSampled() {
+        final SwappableWordList wordList = new SwappableWordList(null);
+        wordList.swap(new TrieWordList.Builder().add("cat").build());
+        final Metrics.Counter lookups = Metrics.counter("dictionary.lookups");
+        final long before = lookups.get();
+        for (int i = 0; i < 640; ++i) {
+            wordList.containsWord("cat");
+        }
+        assertEquals(640, lookups.get() - before);
+    }
+}
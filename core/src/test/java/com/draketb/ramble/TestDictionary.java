@@ -0,0 +1,9 @@
+package com.draketb.ramble;
+
+final class TestDictionary {
+    /** enable1.txt from the app's sources. The build passes its location in ramble.dictionary. */
+    static final String PATH = System.getProperty("ramble.dictionary", "../app/src/main/dictionary/enable1.txt");
+
+    private TestDictionary() {
+    }
+}
@@ -0,0 +1,47 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TokenBoardTest {
+    private static int[] neighbors(TokenBoard board, int cell) {
+        final int[] neighbors = new int[board.neighborStart(cell + 1) - board.neighborStart(cell)];
+        for (int i = 0; i < neighbors.length; ++i) {
+            neighbors[i] = board.neighbor(board.neighborStart(cell) + i);
+        }
+        return neighbors;
+    }
+
+    @Test
+    public void sharesTokensBetweenEqualFaces() {
+        final TokenBoard board = new TokenBoard(2, 3, new String[] {"A", "Qu", "A", "B", "Qu", "A"});
+        assertEquals(3, board.getNumTokens());
+        assertEquals(board.getToken(0), board.getToken(2));
+        assertEquals(board.getToken(1), board.getToken(4));
+        assertEquals("Qu", board.getDieFace(1, 1));
+        assertNull(board.getDieFace(2, 0));
+        assertSame(board, TokenBoard.of(board));
+    }
+
+    @Test
+    public void neighborsOnNonSquareGrid() {
+        final TokenBoard board = new TokenBoard(2, 3, new String[] {"A", "B", "C", "D", "E", "F"});
+        assertEquals("[1, 3, 4]", Arrays.toString(neighbors(board, 0)));
+        assertEquals("[0, 2, 3, 4, 5]", Arrays.toString(neighbors(board, 1)));
+        assertEquals("[1, 2, 4]", Arrays.toString(neighbors(board, 5)));
+    }
+
+    @Test
+    public void blankCellsAreNotNeighbors() {
+        // FixedArrayBoard pads a short face array with blank cells
+        final TokenBoard board = TokenBoard.of(new FixedArrayBoard(2, 2, new String[] {"A", "B", "C"}));
+        assertEquals(TokenBoard.BLANK, board.getToken(3));
+        assertEquals("", board.getDieFace(1, 1));
+        assertEquals("[1, 2]", Arrays.toString(neighbors(board, 0)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.draketb.ramble;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TopologyTest {
+    private static String neighbors(Topology topology, int cell) {
+        final int[] neighbors = new int[topology.neighborStart(cell + 1) - topology.neighborStart(cell)];
+        for (int i = 0; i < neighbors.length; ++i) {
+            neighbors[i] = topology.neighbor(topology.neighborStart(cell) + i);
+        }
+        return Arrays.toString(neighbors);
+    }
+
+    @Test
+    public void sharesGraphPerShape() {
+        assertSame(Topology.grid(4, 4), Topology.grid(4, 4));
+        assertSame(Topology.hex(3, 5), Topology.hex(3, 5));
+        assertFalse(Topology.grid(4, 4) == Topology.torus(4, 4));
+        assertEquals("[0, 1, 2, 4, 6, 8, 9, 10]", neighbors(Topology.grid(4, 4), 5));
+    }
+
+    @Test
+    public void torusWrapsAround() {
+        final Topology torus = Topology.torus(4, 4);
+        assertEquals("[1, 3, 4, 5, 7, 12, 13, 15]", neighbors(torus, 0));
+        assertTrue(torus.areAdjacent(3, 0));
+        assertTrue(torus.areAdjacent(15, 0));
+        assertFalse(torus.areAdjacent(0, 2));
+
+        // Two rows across, the row above and the row below are the same row
+        assertEquals("[1, 2, 3, 4, 5]", neighbors(Topology.torus(2, 3), 0));
+    }
+
+    @Test
+    public void hexHasSixNeighbors() {
+        final Topology hex = Topology.hex(5, 5);
+        assertEquals("[6, 7, 11, 13, 16, 17]", neighbors(hex, 12));
+        assertEquals("[2, 3, 6, 8, 12, 13]", neighbors(hex, 7));
+        assertEquals("[1, 5]", neighbors(hex, 0));
+        assertFalse(hex.hasGridSymmetry());
+        for (int cell = 0; cell < hex.getNumCells(); ++cell) {
+            for (int i = hex.neighborStart(cell); i < hex.neighborStart(cell + 1); ++i) {
+                assertTrue(hex.areAdjacent(hex.neighbor(i), cell));
+            }
+        }
+    }
+
+    @Test
+    public void maskedCellsAreCutOff() {
+        final boolean[] masked = new boolean[9];
+        masked[4] = true;
+        final Topology ring = Topology.grid(3, 3).mask(masked);
+        assertTrue(ring.isMasked(4));
+        assertEquals("[]", neighbors(ring, 4));
+        assertEquals("[1, 3]", neighbors(ring, 0));
+        assertFalse(ring.areAdjacent(0, 4));
+
+        final TokenBoard board = new TokenBoard(ring, new String[] {"A", "B", "C", "D", "E", "F", "G", "H", "I"});
+        assertEquals(TokenBoard.BLANK, board.getToken(4));
+        assertEquals("", board.getDieFace(1, 1));
+    }
+
+    @Test
+    public void solverFollowsWrappedNeighbors() throws IOException {
+        final TrieWordList trie = TrieWordList.load(new FileInputStream(TestDictionary.PATH));
+        final String[] faces = {"A", "T", "C", "X", "X", "X", "X", "X", "X"};
+        assertFalse(new Solver(new FixedArrayBoard(3, 3, faces), trie).solve().contains("cat"));
+        assertTrue(new Solver(new FixedArrayBoard(Topology.torus(3, 3), faces), trie).solve().contains("cat"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.draketb.ramble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TrieWordListTest {
+    private static final String DICTIONARY = TestDictionary.PATH;
+
+    private static List<String> sWords;
+    private static SynchronizedTreeSetWordList sTreeSet;
+    private static TrieWordList sTrie;
+
+    @BeforeClass
+    public static void loadDictionaries() throws IOException {
+        sWords = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new FileReader(DICTIONARY));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            sWords.add(line.toLowerCase());
+        }
+        reader.close();
+
+        sTreeSet = new SynchronizedTreeSetWordList();
+        sTreeSet.load(new FileInputStream(DICTIONARY));
+        sTrie = TrieWordList.load(new FileInputStream(DICTIONARY));
+    }
+
+    @Test
+    public void matchesTreeSetForEveryWordAndPrefix() {
+        assertEquals(sWords.size(), sTrie.getWordCount());
+
+        for (String word : sWords) {
+            for (int i = 0; i <= word.length(); ++i) {
+                final String prefix = word.substring(0, i);
+                assertEquals(prefix, sTreeSet.containsWord(prefix), sTrie.containsWord(prefix));
+                assertEquals(prefix, sTreeSet.containsWords(prefix), sTrie.containsWords(prefix));
+            }
+
+            // One-letter extensions cover the negative answers next to every word
+            for (char c = 'a'; c <= 'z'; ++c) {
+                final String extended = word + c;
+                assertEquals(extended, sTreeSet.containsWord(extended), sTrie.containsWord(extended));
+                assertEquals(extended, sTreeSet.containsWords(extended), sTrie.containsWords(extended));
+            }
+        }
+    }
+
+    @Test
+    public void mappedImageMatchesTrie() throws IOException {
+        final ByteArrayOutputStream image = new ByteArrayOutputStream();
+        MappedTrieWordList.write(sTrie, image);
+        final MappedTrieWordList mapped = new MappedTrieWordList(ByteBuffer.wrap(image.toByteArray()));
+
+        assertEquals(sTrie.getNodeCount(), mapped.getNodeCount());
+        assertEquals(sTrie.getWordCount(), mapped.getWordCount());
+        for (String word : sWords) {
+            assertTrue(word, mapped.containsWord(word));
+            assertEquals(word, sTrie.containsWord(word + 's'), mapped.containsWord(word + 's'));
+            assertEquals(word, sTrie.containsWords(word + 's'), mapped.containsWords(word + 's'));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void mappedImageRejectsText() throws IOException {
+        new MappedTrieWordList(ByteBuffer.wrap("aa\naah\naahed\naahing\n".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void emptyTrie() {
+        final TrieWordList trie = new TrieWordList.Builder().build();
+        assertFalse(trie.containsWord(""));
+        assertFalse(trie.containsWords(""));
+        assertFalse(trie.containsWords("a"));
+    }
+
+    @Test
+    public void builderIgnoresOrderAndDuplicates() {
+        final TrieWordList trie = new TrieWordList.Builder()
+                .add("cat").add("car").add("cart").add("car").add("ca")
+                .build();
+        assertEquals(4, trie.getWordCount());
+        assertTrue(trie.containsWord("ca"));
+        assertTrue(trie.containsWord("cart"));
+        assertFalse(trie.containsWord("c"));
+        assertTrue(trie.containsWords("c"));
+        assertFalse(trie.containsWords("cb"));
+    }
+
+    @Test
+    public void cursorKnowsLongestWordBelowPrefix() {
+        final TrieWordList trie = new TrieWordList.Builder()
+                .add("cat").add("car").add("cartwheel").add("dog")
+                .build();
+        final LoudsWordList louds = new LoudsWordList(trie);
+        for (WordList wordList : new WordList[] {trie, louds}) {
+            final WordCursor cursor = wordList.newCursor();
+            assertEquals(9, cursor.getMaxRemainingLength());
+            assertTrue(cursor.advance("C"));
+            assertEquals(8, cursor.getMaxRemainingLength());
+            assertTrue(cursor.advance("a"));
+            assertTrue(cursor.advance("t"));
+            assertEquals(0, cursor.getMaxRemainingLength());
+            cursor.back();
+            assertTrue(cursor.advance("rt"));
+            assertEquals(5, cursor.getMaxRemainingLength());
+        }
+        assertEquals(WordCursor.UNBOUNDED, sTreeSet.newCursor().getMaxRemainingLength());
+    }
+}